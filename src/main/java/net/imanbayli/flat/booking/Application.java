@@ -1,88 +1,558 @@
 package net.imanbayli.flat.booking;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import net.imanbayli.flat.booking.model.ErrorResponse;
+import net.imanbayli.flat.booking.cluster.ClusterConfig;
+import net.imanbayli.flat.booking.codec.BookingJsonCodec;
+import net.imanbayli.flat.booking.cluster.ConsistentHashRing;
+import net.imanbayli.flat.booking.cluster.ForwardedResponse;
+import net.imanbayli.flat.booking.cluster.RequestForwarder;
+import net.imanbayli.flat.booking.exception.ErrorResponseCache;
+import net.imanbayli.flat.booking.jfr.JsonEvent;
+import net.imanbayli.flat.booking.jfr.Outcomes;
+import net.imanbayli.flat.booking.jfr.RecordingController;
+import net.imanbayli.flat.booking.model.BookingRules;
+import net.imanbayli.flat.booking.model.DecisionRequest;
+import net.imanbayli.flat.booking.model.DecisionResult;
 import net.imanbayli.flat.booking.model.Flat;
+import net.imanbayli.flat.booking.model.FlatOccupancy;
 import net.imanbayli.flat.booking.model.Landlord;
+import net.imanbayli.flat.booking.model.ReservationOutcome;
+import net.imanbayli.flat.booking.model.ReservationResponse;
 import net.imanbayli.flat.booking.model.ReserveSlot;
+import net.imanbayli.flat.booking.model.Tenant;
+import net.imanbayli.flat.booking.replication.ReplicationAck;
+import net.imanbayli.flat.booking.replication.ReplicationBatch;
+import net.imanbayli.flat.booking.replication.ReplicationConfig;
+import net.imanbayli.flat.booking.replication.ReplicationFollower;
+import net.imanbayli.flat.booking.replication.ReplicationLog;
 import net.imanbayli.flat.booking.repository.FlatRepository;
 import net.imanbayli.flat.booking.repository.provider.FlatRepositoryInMemoryProvider;
+import net.imanbayli.flat.booking.repository.provider.FlatRepositoryMappedProvider;
+import net.imanbayli.flat.booking.repository.provider.FlatRepositoryRecordingProvider;
+import net.imanbayli.flat.booking.service.AnalyticsService;
+import net.imanbayli.flat.booking.service.BookingRulesRegistry;
 import net.imanbayli.flat.booking.service.FlatService;
 import net.imanbayli.flat.booking.service.NotificationService;
+import net.imanbayli.flat.booking.service.OccupancyProjection;
+import net.imanbayli.flat.booking.service.TenantContext;
+import net.imanbayli.flat.booking.service.WaitlistRegistry;
+import net.imanbayli.flat.booking.service.provider.AnalyticsServiceForkJoinProvider;
+import net.imanbayli.flat.booking.service.provider.BookingRulesRegistryInMemoryProvider;
 import net.imanbayli.flat.booking.service.provider.FlatServiceDefaultProvider;
+import net.imanbayli.flat.booking.service.provider.FlatServiceRecordingProvider;
+import net.imanbayli.flat.booking.service.provider.NotificationServiceCoalescingProvider;
+import net.imanbayli.flat.booking.service.provider.NotificationServiceRecordingProvider;
 import net.imanbayli.flat.booking.service.provider.NotificationServiceStubProvider;
+import net.imanbayli.flat.booking.service.provider.OccupancyProjectionInMemoryProvider;
+import net.imanbayli.flat.booking.service.provider.TokenVerifierCachingProvider;
+import net.imanbayli.flat.booking.service.provider.TokenVerifierStubProvider;
+import net.imanbayli.flat.booking.service.provider.WaitlistRegistryInMemoryProvider;
 import spark.Request;
 import spark.Response;
 import spark.Spark;
 
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
 public class Application {
-    static FlatRepository flatRepository = new FlatRepositoryInMemoryProvider();
-    static NotificationService notificationService = new NotificationServiceStubProvider();
-    static FlatService flatService = new FlatServiceDefaultProvider(flatRepository, notificationService);
+    static FlatRepository flatRepository = new FlatRepositoryRecordingProvider(createFlatRepository());
+    static NotificationServiceCoalescingProvider notificationCoalescer = new NotificationServiceCoalescingProvider(
+            new NotificationServiceRecordingProvider(new NotificationServiceStubProvider()),
+            Duration.ofMillis(Long.getLong("notification.windowMillis", 5_000)),
+            Duration.ofMillis(Long.getLong("notification.maxDelayMillis", 30_000)),
+            Integer.getInteger("notification.maxDistinctMessages", 16));
+    static NotificationService notificationService = notificationCoalescer;
+    static OccupancyProjection occupancyProjection = new OccupancyProjectionInMemoryProvider(flatRepository);
+    static final int MAX_DECISIONS = 1_000;
+    static final String BEARER = "Bearer ";
+
+    static BookingRulesRegistry bookingRulesRegistry = new BookingRulesRegistryInMemoryProvider();
+    static WaitlistRegistry waitlistRegistry = new WaitlistRegistryInMemoryProvider(
+            Integer.getInteger("waitlist.capacityPerSlot", WaitlistRegistryInMemoryProvider.DEFAULT_CAPACITY_PER_SLOT),
+            Clock.systemDefaultZone());
+    static ReplicationConfig replicationConfig = ReplicationConfig.fromSystemProperties();
+    static ReplicationLog replicationLog = new ReplicationLog(replicationConfig, Application::stepDown);
+    static ReplicationFollower replicationFollower = new ReplicationFollower(flatRepository, bookingRulesRegistry,
+            waitlistRegistry, List.of(occupancyProjection));
+    static volatile ReplicationConfig.Role replicationRole = replicationConfig.getRole();
+    static FlatService flatService = createFlatService();
+    static AnalyticsService analyticsService = new AnalyticsServiceForkJoinProvider(flatRepository, flatService, bookingRulesRegistry);
     static ObjectMapper mapper = new ObjectMapper();
+    static BookingJsonCodec codec = new BookingJsonCodec();
+    static ClusterConfig clusterConfig = ClusterConfig.fromSystemProperties();
+    static ConsistentHashRing hashRing;
+    static RequestForwarder requestForwarder;
+    static RecordingController recordingController = new RecordingController();
+    static TokenVerifierCachingProvider tokenVerifier = new TokenVerifierCachingProvider(new TokenVerifierStubProvider(),
+            Duration.ofSeconds(Long.getLong("auth.tokenTtlSeconds", 300)),
+            Integer.getInteger("auth.tokenCacheSize", 10_000),
+            Clock.systemUTC());
 
     public static void main(String[] args) {
+        if (clusterConfig.isEnabled()) {
+            hashRing = new ConsistentHashRing(clusterConfig.getNodes(), clusterConfig.getVirtualNodes());
+            requestForwarder = new RequestForwarder(clusterConfig.getSelf());
+        }
+        if (replicationRole == ReplicationConfig.Role.LEADER) {
+            replicationLog.activate(0, System.currentTimeMillis());
+        }
+        if (replicationConfig.getSecret() == null
+                && (replicationRole == ReplicationConfig.Role.FOLLOWER || !replicationConfig.getFollowers().isEmpty())) {
+            System.out.println("replication.secret is not set, replication requests will be refused");
+        }
+        if (Boolean.getBoolean("jfr.alwaysOn")) {
+            try {
+                recordingController.start();
+            } catch (IOException | ParseException e) {
+                e.printStackTrace();
+            }
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(notificationCoalescer::flush));
         loadDummyData();
         startServer();
     }
 
+    private static FlatRepository createFlatRepository() {
+        String file = System.getProperty("repository.file");
+        if (file == null || file.isBlank()) {
+            return new FlatRepositoryInMemoryProvider();
+        }
+        FlatRepositoryMappedProvider repository = new FlatRepositoryMappedProvider(Path.of(file),
+                Integer.getInteger("repository.maxFlats", 100_000),
+                Integer.getInteger("repository.maxSlotsPerFlat", 256),
+                Boolean.getBoolean("repository.compactHistory"));
+        Runtime.getRuntime().addShutdownHook(new Thread(repository::flush));
+        return repository;
+    }
+
+    private static FlatService createFlatService() {
+        FlatServiceDefaultProvider service = new FlatServiceDefaultProvider(flatRepository, notificationService,
+                occupancyProjection, bookingRulesRegistry, waitlistRegistry);
+        service.addEventListener(replicationLog);
+        return new FlatServiceRecordingProvider(service);
+    }
+
     public static void startServer(){
-        Spark.port(8080);
+        Spark.port(Integer.getInteger("server.port", 8080));
+        Spark.before("/v1/flat/*", Application::rejectWritesOnFollower);
+        Spark.before("/v1/replication/*", Application::requireNodeSecret);
+        Spark.before("/v1/admin/*", Application::requireLocalCaller);
+        Spark.before("/v1/flat/:flatId/reserve", Application::bindTenant);
+        Spark.before("/v1/flat/:flatId/waitlist", Application::bindTenant);
+        Spark.before("/v1/flat/:flatId/waitlist/*", Application::bindTenant);
+        Spark.before("/v1/flat/:flatId/cancel/*", Application::bindTenant);
+        Spark.afterAfter("/v1/flat/*", (request, response) -> TenantContext.clear());
+        if (clusterConfig.isEnabled()) {
+            Spark.before("/v1/flat/:flatId/*", Application::forwardToOwner);
+        }
         Spark.post("/v1/flat/:flatId/reserve", (request, response) -> {
             response.header("Content-Type", "application/json");
             String flatId = request.params(":flatId");
-            ReserveSlot slot = mapper.readValue(request.body(), ReserveSlot.class);
-            return mapper.writeValueAsString(flatService.reserve(flatId, slot));
+            ReserveSlot slot = readReserveSlot(request);
+            ReservationOutcome outcome = flatService.tryReserve(flatId, slot);
+            if (outcome.isRejected()) {
+                response.status(400);
+                return ErrorResponseCache.bytes(outcome);
+            }
+            return toJson(outcome.getResponse());
+        });
+        Spark.post("/v1/flat/:flatId/waitlist", (request, response) -> {
+            response.header("Content-Type", "application/json");
+            String flatId = request.params(":flatId");
+            ReserveSlot slot = readReserveSlot(request);
+            return toJson(flatService.joinWaitlist(flatId, slot));
+        });
+        Spark.delete("/v1/flat/:flatId/waitlist/:waitlistId", (request, response) -> {
+            response.header("Content-Type", "application/json");
+            String flatId = request.params(":flatId");
+            String waitlistId = request.params(":waitlistId");
+            return toJson(flatService.leaveWaitlist(flatId, waitlistId));
         });
         Spark.patch("/v1/flat/:flatId/cancel/:reservationId", (request, response) -> {
             response.header("Content-Type", "application/json");
             String flatId = request.params(":flatId");
             String reservationId = request.params(":reservationId");
-            return mapper.writeValueAsString(flatService.cancel(flatId, reservationId));
+            return toJson(flatService.cancel(flatId, reservationId));
         });
         Spark.patch("/v1/flat/:flatId/approve/:reservationId", (request, response) -> {
             response.header("Content-Type", "application/json");
             String flatId = request.params(":flatId");
             String reservationId = request.params(":reservationId");
-            return mapper.writeValueAsString(flatService.approve(flatId, reservationId));
+            return toJson(flatService.approve(flatId, reservationId));
         });
         Spark.patch("/v1/flat/:flatId/reject/:reservationId", (request, response) -> {
             response.header("Content-Type", "application/json");
             String flatId = request.params(":flatId");
             String reservationId = request.params(":reservationId");
-            return mapper.writeValueAsString(flatService.reject(flatId, reservationId));
+            return toJson(flatService.reject(flatId, reservationId));
+        });
+        Spark.post("/v1/flat/decisions", (request, response) -> {
+            response.header("Content-Type", "application/json");
+            List<DecisionRequest> decisions = Arrays.asList(readJson(request, DecisionRequest[].class));
+            if (decisions.size() > MAX_DECISIONS) {
+                throw new IllegalArgumentException("You can only send up to " + MAX_DECISIONS + " decisions at once");
+            }
+            return toJson(decide(decisions, request.headers(RequestForwarder.FORWARDED_HEADER) == null));
         });
         Spark.get("/v1/flat/:flatId/view", (request, response) -> {
             response.header("Content-Type", "application/json");
             String flatId = request.params(":flatId");
-            return mapper.writeValueAsString(flatService.viewOccupiedDates(flatId));
+            Optional<FlatOccupancy> occupancy = occupancyProjection.find(flatId);
+            if (occupancy.isPresent()) {
+                return occupancy.get().getJson();
+            }
+            return datesJson(flatService.viewOccupiedDates(flatId));
+        });
+        Spark.get("/v1/flat/:flatId/free", (request, response) -> {
+            response.header("Content-Type", "application/json");
+            String flatId = request.params(":flatId");
+            return datesJson(flatService.viewFreeSlots(flatId));
+        });
+        Spark.put("/v1/flat/:flatId/rules", (request, response) -> {
+            response.header("Content-Type", "application/json");
+            String flatId = request.params(":flatId");
+            BookingRules rules = readJson(request, BookingRules.class);
+            flatService.updateBookingRules(flatId, rules);
+            return toJson(rules);
+        });
+        Spark.get("/v1/analytics/occupancy", (request, response) -> {
+            response.header("Content-Type", "application/json");
+            return toJson(analyticsService.occupancyReport());
+        });
+        Spark.post("/v1/replication/append", (request, response) -> {
+            response.header("Content-Type", "application/json");
+            if (replicationRole != ReplicationConfig.Role.FOLLOWER) {
+                response.status(409);
+                return toJson(new ReplicationAck(replicationLog.getLastIndex(), null, replicationLog.getEpoch(), false));
+            }
+            ReplicationBatch batch = readJson(request, ReplicationBatch.class);
+            return toJson(replicationFollower.append(batch));
+        });
+        Spark.post("/v1/replication/promote", (request, response) -> {
+            response.header("Content-Type", "application/json");
+            String refusal = promoteToLeader();
+            if (refusal != null) {
+                response.status(409);
+                return ErrorResponseCache.fixedBytes(refusal);
+            }
+            return toJson(Map.of("role", replicationRole, "epoch", replicationLog.getEpoch()));
+        });
+        Spark.post("/v1/admin/recording/start", (request, response) -> {
+            response.header("Content-Type", "application/json");
+            return toJson(Map.of("started", recordingController.start()));
+        });
+        Spark.post("/v1/admin/recording/stop", (request, response) -> {
+            response.header("Content-Type", "application/json");
+            if (!recordingController.isRecording()) {
+                return toJson(Map.of("file", ""));
+            }
+            Path destination = Files.createTempFile("flat-booking-", ".jfr");
+            Path file = recordingController.stop(destination);
+            if (file == null) {
+                Files.deleteIfExists(destination);
+            }
+            return toJson(Map.of("file", file == null ? "" : file.toString()));
+        });
+        Spark.get("/v1/metrics", (request, response) -> {
+            response.header("Content-Type", "application/json");
+            return toJson(metrics());
         });
 
         Spark.exception(Exception.class, Application::handle);
     }
 
+    private static <T> T readJson(Request request, Class<T> type) throws IOException {
+        return parse(type, request.contentLength(), () -> mapper.readValue(request.bodyAsBytes(), type));
+    }
+
+    private static ReserveSlot readReserveSlot(Request request) throws IOException {
+        return parse(ReserveSlot.class, request.contentLength(), () -> codec.readReserveSlot(request.raw().getInputStream()));
+    }
+
+    private static byte[] toJson(Object value) throws IOException {
+        return serialize(value == null ? "null" : value.getClass().getSimpleName(), () -> mapper.writeValueAsBytes(value));
+    }
+
+    private static byte[] toJson(ReservationResponse value) throws IOException {
+        return serialize("ReservationResponse", () -> codec.writeReservationResponse(value));
+    }
+
+    private static byte[] datesJson(List<String> dates) throws IOException {
+        return serialize("OccupiedDates", () -> codec.writeDates(dates));
+    }
+
+    private static <T> T parse(Class<T> type, long size, JsonCall<T> call) throws IOException {
+        JsonEvent event = new JsonEvent();
+        event.begin();
+        Throwable failure = null;
+        try {
+            return call.call();
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = "parse";
+                event.type = type.getSimpleName();
+                event.size = Math.max(0, size);
+                event.outcome = Outcomes.of(failure);
+                event.commit();
+            }
+        }
+    }
+
+    private static byte[] serialize(String type, JsonCall<byte[]> call) throws IOException {
+        JsonEvent event = new JsonEvent();
+        event.begin();
+        byte[] json = null;
+        Throwable failure = null;
+        try {
+            json = call.call();
+            return json;
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = "serialize";
+                event.type = type;
+                event.size = json == null ? 0 : json.length;
+                event.outcome = Outcomes.of(failure);
+                event.commit();
+            }
+        }
+    }
+
+    private interface JsonCall<T> {
+        T call() throws IOException;
+    }
+
+    private static List<DecisionResult> decide(List<DecisionRequest> decisions, boolean splitByOwner) throws Exception {
+        if (!clusterConfig.isEnabled() || !splitByOwner) {
+            return flatService.decide(decisions);
+        }
+        Map<String, List<Integer>> indexesByOwner = new LinkedHashMap<>();
+        for (int i = 0; i < decisions.size(); i++) {
+            DecisionRequest decision = decisions.get(i);
+            String owner = decision == null || decision.getFlatId() == null
+                    ? clusterConfig.getSelf()
+                    : hashRing.ownerOf(decision.getFlatId());
+            indexesByOwner.computeIfAbsent(owner, self -> new ArrayList<>()).add(i);
+        }
+        DecisionResult[] results = new DecisionResult[decisions.size()];
+        for (Map.Entry<String, List<Integer>> owner : indexesByOwner.entrySet()) {
+            List<DecisionRequest> owned = new ArrayList<>();
+            for (int index : owner.getValue()) {
+                owned.add(decisions.get(index));
+            }
+            List<DecisionResult> ownedResults = owner.getKey().equals(clusterConfig.getSelf())
+                    ? flatService.decide(owned)
+                    : forwardDecisions(owner.getKey(), owned);
+            for (int i = 0; i < owned.size(); i++) {
+                results[owner.getValue().get(i)] = ownedResults.get(i);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private static List<DecisionResult> forwardDecisions(String owner, List<DecisionRequest> decisions) {
+        String failure;
+        try {
+            ForwardedResponse forwarded = requestForwarder.forward(owner, "POST", "/v1/flat/decisions",
+                    "application/json", null, mapper.writeValueAsBytes(decisions));
+            if (forwarded.getStatus() == 200) {
+                return Arrays.asList(mapper.readValue(forwarded.getBody(), DecisionResult[].class));
+            }
+            failure = "Owner node " + owner + " answered with status " + forwarded.getStatus();
+        } catch (IOException e) {
+            failure = "Owner node " + owner + " is unreachable";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = "Owner node " + owner + " is unreachable";
+        }
+        List<DecisionResult> results = new ArrayList<>();
+        for (DecisionRequest decision : decisions) {
+            results.add(DecisionResult.failed(decision, failure));
+        }
+        return results;
+    }
+
+    private static void rejectWritesOnFollower(Request request, Response response) {
+        if ("GET".equals(request.requestMethod())) {
+            return;
+        }
+        if (replicationRole == ReplicationConfig.Role.FOLLOWER) {
+            response.header("Content-Type", "application/json");
+            Spark.halt(503, ErrorResponseCache.fixedJson("This node is a read-only follower"));
+        }
+        if (!replicationLog.holdsLease()) {
+            response.header("Content-Type", "application/json");
+            Spark.halt(503, ErrorResponseCache.fixedJson("This leader has not heard from a follower within its lease"));
+        }
+    }
+
+    private static void requireLocalCaller(Request request, Response response) throws IOException {
+        if (!InetAddress.getByName(request.ip()).isLoopbackAddress()) {
+            response.header("Content-Type", "application/json");
+            Spark.halt(403, ErrorResponseCache.fixedJson("Admin endpoints only accept local callers"));
+        }
+    }
+
+    private static void requireNodeSecret(Request request, Response response) {
+        String secret = replicationConfig.getSecret();
+        String presented = request.headers(ReplicationConfig.SECRET_HEADER);
+        if (secret == null || presented == null || !MessageDigest.isEqual(
+                secret.getBytes(StandardCharsets.UTF_8), presented.getBytes(StandardCharsets.UTF_8))) {
+            response.header("Content-Type", "application/json");
+            Spark.halt(403, ErrorResponseCache.fixedJson("A valid replication secret is required"));
+        }
+    }
+
+    private static void bindTenant(Request request, Response response) {
+        String authorization = request.headers("Authorization");
+        Optional<Tenant> tenant = authorization != null && authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())
+                ? tokenVerifier.verify(authorization.substring(BEARER.length()).trim())
+                : Optional.empty();
+        if (tenant.isEmpty()) {
+            response.header("Content-Type", "application/json");
+            response.header("WWW-Authenticate", "Bearer");
+            Spark.halt(401, ErrorResponseCache.fixedJson("A valid bearer token is required"));
+        }
+        TenantContext.set(tenant.get());
+    }
+
+    private static synchronized String promoteToLeader() {
+        if (replicationRole == ReplicationConfig.Role.LEADER) {
+            return null;
+        }
+        if (replicationFollower.isResyncRequired()) {
+            return "This follower has diverged from the leader and needs a resync";
+        }
+        long silentFor = System.currentTimeMillis() - replicationFollower.getLastContactAt();
+        if (silentFor < replicationConfig.getLeaseMillis()) {
+            return "The leader was heard from within its " + replicationConfig.getLeaseMillis()
+                    + " ms lease, stop it or retry later";
+        }
+        long epoch = Math.max(System.currentTimeMillis(), replicationFollower.getEpoch() + 1);
+        replicationLog.activate(replicationFollower.getLastApplied(), epoch);
+        replicationRole = ReplicationConfig.Role.LEADER;
+        System.out.println("Promoted to leader of epoch " + epoch + " at log index " + replicationFollower.getLastApplied());
+        return null;
+    }
+
+    private static synchronized void stepDown() {
+        if (replicationRole != ReplicationConfig.Role.LEADER) {
+            return;
+        }
+        replicationRole = ReplicationConfig.Role.FOLLOWER;
+        replicationFollower.requireResync();
+        System.out.println("Stepped down to follower, a newer leader exists");
+    }
+
+    private static void forwardToOwner(Request request, Response response) throws Exception {
+        if (request.headers(RequestForwarder.FORWARDED_HEADER) != null) {
+            return;
+        }
+        String owner = hashRing.ownerOf(request.params(":flatId"));
+        if (owner.equals(clusterConfig.getSelf())) {
+            return;
+        }
+        String rawQuery = request.raw().getQueryString();
+        String pathAndQuery = rawQuery == null
+                ? request.raw().getRequestURI()
+                : request.raw().getRequestURI() + "?" + rawQuery;
+        ForwardedResponse forwarded;
+        try {
+            forwarded = requestForwarder.forward(owner, request.requestMethod(), pathAndQuery,
+                    request.contentType(), request.headers("Authorization"), request.bodyAsBytes());
+        } catch (IOException e) {
+            response.header("Content-Type", "application/json");
+            Spark.halt(503, ErrorResponseCache.fixedJson("Owner node " + owner + " is unreachable"));
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.header("Content-Type", "application/json");
+            Spark.halt(503, ErrorResponseCache.fixedJson("Owner node " + owner + " is unreachable"));
+            return;
+        }
+        if (forwarded.getContentType() != null) {
+            response.header("Content-Type", forwarded.getContentType());
+        }
+        Spark.halt(forwarded.getStatus(), new String(forwarded.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private static boolean isOwnedLocally(String flatId) {
+        return !clusterConfig.isEnabled() || hashRing.ownerOf(flatId).equals(clusterConfig.getSelf());
+    }
+
+    private static Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("projection.lagMillis", occupancyProjection.getLagMillis());
+        metrics.put("projection.pendingEvents", occupancyProjection.getPendingEvents());
+        if (clusterConfig.isEnabled()) {
+            metrics.put("cluster.forwardedRequests", requestForwarder.getForwardedRequests());
+        }
+        metrics.put("notification.received", notificationCoalescer.getReceivedCount());
+        metrics.put("notification.delivered", notificationCoalescer.getDeliveredCount());
+        metrics.put("notification.failed", notificationCoalescer.getFailedCount());
+        metrics.put("waitlist.waiting", waitlistRegistry.getWaitingCount());
+        metrics.put("auth.tokenCache.size", tokenVerifier.size());
+        metrics.put("auth.tokenCache.hitRatio", tokenVerifier.getHitRatio());
+        metrics.put("replication.role", replicationRole);
+        metrics.put("replication.epoch", replicationRole == ReplicationConfig.Role.FOLLOWER
+                ? replicationFollower.getEpoch()
+                : replicationLog.getEpoch());
+        if (replicationRole == ReplicationConfig.Role.FOLLOWER) {
+            metrics.put("replication.lastApplied", replicationFollower.getLastApplied());
+            metrics.put("replication.lagEntries", replicationFollower.getLagEntries());
+            metrics.put("replication.lagMillis", replicationFollower.getLagMillis());
+            metrics.put("replication.resyncRequired", replicationFollower.isResyncRequired());
+        } else {
+            metrics.put("replication.leaseHeld", replicationLog.holdsLease());
+            metrics.put("replication.lastIndex", replicationLog.getLastIndex());
+            replicationLog.getFollowerLag().forEach((follower, lag) ->
+                    metrics.put("replication.follower." + follower + ".lagEntries", lag));
+        }
+        return metrics;
+    }
+
     private static void handle(Exception exception, Request request, Response response) {
         //if(Set.of(FlatNotFoundException.class, IllegalTimeslotException.class, ReservationNotFoundException.class))
-        ErrorResponse errorResponse = new ErrorResponse();
-        errorResponse.setMessage(exception.getMessage());
         response.header("Content-Type", "application/json");
         response.status(400);
-        try {
-            response.body(mapper.writeValueAsString(errorResponse));
-        } catch (JsonProcessingException e) {
-            e.printStackTrace();
-        }
+        response.body(ErrorResponseCache.json(exception));
     }
 
     private static void loadDummyData() {
         Landlord landlord = new Landlord("ID_LANDLORD_1", "Murad", "Imanbayli");
-        Flat flat = new Flat("ID_FLAT_1", "Cozy apartment", "London");
-        flat.setLandlord(landlord);
-        flatRepository.save(flat);
-        System.out.println("Flat loaded: " + flat);
+        saveDummyFlat(new Flat("ID_FLAT_1", "Cozy apartment", "London"), landlord);
+        saveDummyFlat(new Flat("ID_FLAT_2", "Super cheap flat in center", "London"), landlord);
 
-        flat = new Flat("ID_FLAT_2", "Super cheap flat in center", "London");
+        int generatedFlats = Integer.getInteger("dummy.flats", 0);
+        for (int i = 1; i <= generatedFlats; i++) {
+            saveDummyFlat(new Flat("ID_GEN_FLAT_" + i, "Generated flat " + i, "London"), landlord);
+        }
+    }
+
+    private static void saveDummyFlat(Flat flat, Landlord landlord) {
+        if (!isOwnedLocally(flat.getId()) || flatRepository.findById(flat.getId()).isPresent()) {
+            return;
+        }
         flat.setLandlord(landlord);
         flatRepository.save(flat);
         System.out.println("Flat loaded: " + flat);
@@ -0,0 +1,53 @@
+package net.imanbayli.flat.booking.cluster;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ClusterConfig {
+    private static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final String self;
+    private final List<String> nodes;
+    private final int virtualNodes;
+
+    public ClusterConfig(String self, List<String> nodes, int virtualNodes) {
+        this.self = self;
+        this.nodes = nodes;
+        this.virtualNodes = virtualNodes;
+    }
+
+    public static ClusterConfig fromSystemProperties() {
+        String nodes = System.getProperty("cluster.nodes", "");
+        if (nodes.isBlank()) {
+            return new ClusterConfig(null, Collections.emptyList(), DEFAULT_VIRTUAL_NODES);
+        }
+        List<String> nodeList = Arrays.stream(nodes.split(","))
+                .map(String::trim)
+                .filter(n -> !n.isEmpty())
+                .collect(Collectors.toList());
+        String self = System.getProperty("cluster.self");
+        if (self == null || !nodeList.contains(self)) {
+            throw new IllegalArgumentException("cluster.self must be one of cluster.nodes " + nodeList);
+        }
+        int virtualNodes = Integer.getInteger("cluster.virtualNodes", DEFAULT_VIRTUAL_NODES);
+        return new ClusterConfig(self, nodeList, virtualNodes);
+    }
+
+    public boolean isEnabled() {
+        return nodes.size() > 1;
+    }
+
+    public String getSelf() {
+        return self;
+    }
+
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+}
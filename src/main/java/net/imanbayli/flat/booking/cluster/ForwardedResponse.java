@@ -0,0 +1,25 @@
+package net.imanbayli.flat.booking.cluster;
+
+public class ForwardedResponse {
+    private final int status;
+    private final String contentType;
+    private final byte[] body;
+
+    public ForwardedResponse(int status, String contentType, byte[] body) {
+        this.status = status;
+        this.contentType = contentType;
+        this.body = body;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+}
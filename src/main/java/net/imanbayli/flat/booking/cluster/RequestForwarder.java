@@ -0,0 +1,55 @@
+package net.imanbayli.flat.booking.cluster;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Forwards requests to the node owning a flat. {@link HttpClient} keeps a pool of keep-alive connections per node,
+ * so a forwarded request costs one extra local hop rather than a new connection.
+ */
+public class RequestForwarder {
+    public static final String FORWARDED_HEADER = "X-Flat-Forwarded-By";
+
+    private final String self;
+    private final HttpClient httpClient;
+    private final AtomicLong forwardedRequests = new AtomicLong();
+
+    public RequestForwarder(String self) {
+        this.self = self;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+    }
+
+    public ForwardedResponse forward(String node, String method, String pathAndQuery, String contentType,
+                                     String authorization, byte[] body) throws IOException, InterruptedException {
+        HttpRequest.BodyPublisher publisher = body == null || body.length == 0
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(body);
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://" + node + pathAndQuery))
+                .timeout(Duration.ofSeconds(5))
+                .header(FORWARDED_HEADER, self)
+                .method(method, publisher);
+        if (contentType != null) {
+            builder.header("Content-Type", contentType);
+        }
+        if (authorization != null) {
+            builder.header("Authorization", authorization);
+        }
+        HttpResponse<byte[]> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+        forwardedRequests.incrementAndGet();
+        return new ForwardedResponse(response.statusCode(),
+                response.headers().firstValue("Content-Type").orElse(null),
+                response.body());
+    }
+
+    public long getForwardedRequests() {
+        return forwardedRequests.get();
+    }
+}
@@ -0,0 +1,143 @@
+package net.imanbayli.flat.booking.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import net.imanbayli.flat.booking.model.ReservationResponse;
+import net.imanbayli.flat.booking.model.ReserveSlot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Streaming reader and writers for the booking API's hot DTOs. Output is generated into a per-thread buffer that is
+ * reset between calls, so a response costs one exact-size byte array. Dates are read in either of the forms
+ * {@code LocalDateTimeDeserializer} accepts: an ISO string or a {@code [year, month, day, hour, minute, ...]} array.
+ */
+public class BookingJsonCodec {
+    private static final int INITIAL_BUFFER_SIZE = 512;
+
+    private final JsonFactory factory = new JsonFactory();
+    private final ThreadLocal<ByteArrayBuilder> buffers = ThreadLocal.withInitial(() -> new ByteArrayBuilder(INITIAL_BUFFER_SIZE));
+
+    public ReserveSlot readReserveSlot(InputStream in) throws IOException {
+        ReserveSlot slot = new ReserveSlot();
+        try (JsonParser parser = factory.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object");
+            }
+            String field;
+            while ((field = parser.nextFieldName()) != null) {
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "id":
+                        slot.setId(value == JsonToken.VALUE_NULL ? null : parser.getValueAsString());
+                        break;
+                    case "tenantId":
+                        slot.setTenantId(value == JsonToken.VALUE_NULL ? null : parser.getValueAsString());
+                        break;
+                    case "status":
+                        slot.setStatus(readStatus(parser, value));
+                        break;
+                    case "dateTime":
+                        slot.setDateTime(readDateTime(parser, value));
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            if (parser.currentToken() != JsonToken.END_OBJECT) {
+                throw new JsonParseException(parser, "Unexpected token " + parser.currentToken());
+            }
+        }
+        return slot;
+    }
+
+    public byte[] writeReservationResponse(ReservationResponse response) throws IOException {
+        ByteArrayBuilder buffer = buffers.get();
+        buffer.reset();
+        try (JsonGenerator generator = factory.createGenerator(buffer)) {
+            generator.writeStartObject();
+            generator.writeStringField("id", response.getId());
+            generator.writeEndObject();
+        }
+        return buffer.toByteArray();
+    }
+
+    public byte[] writeErrorResponse(String message) throws IOException {
+        ByteArrayBuilder buffer = buffers.get();
+        buffer.reset();
+        try (JsonGenerator generator = factory.createGenerator(buffer)) {
+            generator.writeStartObject();
+            generator.writeStringField("message", message);
+            generator.writeEndObject();
+        }
+        return buffer.toByteArray();
+    }
+
+    public byte[] writeDates(List<String> dates) throws IOException {
+        ByteArrayBuilder buffer = buffers.get();
+        buffer.reset();
+        try (JsonGenerator generator = factory.createGenerator(buffer)) {
+            generator.writeStartArray();
+            for (String date : dates) {
+                generator.writeString(date);
+            }
+            generator.writeEndArray();
+        }
+        return buffer.toByteArray();
+    }
+
+    private static ReserveSlot.Status readStatus(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        try {
+            return ReserveSlot.Status.valueOf(parser.getValueAsString());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new JsonParseException(parser, "Unknown status " + parser.getText());
+        }
+    }
+
+    private static LocalDateTime readDateTime(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (value == JsonToken.VALUE_STRING) {
+            String text = parser.getText().trim();
+            if (text.isEmpty()) {
+                return null;
+            }
+            try {
+                return LocalDateTime.parse(text);
+            } catch (DateTimeParseException e) {
+                throw new JsonParseException(parser, "Cannot parse dateTime " + text);
+            }
+        }
+        if (value == JsonToken.START_ARRAY) {
+            int[] parts = new int[7];
+            int count = 0;
+            while (parser.nextToken() == JsonToken.VALUE_NUMBER_INT) {
+                if (count == parts.length) {
+                    throw new JsonParseException(parser, "Too many dateTime components");
+                }
+                parts[count++] = parser.getIntValue();
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY || count < 5) {
+                throw new JsonParseException(parser, "Expected [year, month, day, hour, minute] for dateTime");
+            }
+            try {
+                return LocalDateTime.of(parts[0], parts[1], parts[2], parts[3], parts[4], parts[5], parts[6]);
+            } catch (RuntimeException e) {
+                throw new JsonParseException(parser, "Invalid dateTime: " + e.getMessage());
+            }
+        }
+        throw new JsonParseException(parser, "Unexpected token " + value + " for dateTime");
+    }
+}
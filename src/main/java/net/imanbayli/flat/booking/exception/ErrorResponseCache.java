@@ -0,0 +1,77 @@
+package net.imanbayli.flat.booking.exception;
+
+import net.imanbayli.flat.booking.codec.BookingJsonCodec;
+import net.imanbayli.flat.booking.model.ReservationOutcome;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Error bodies for the request paths. Fixed messages (literals and texts derived from booking rules) are rendered
+ * once and kept; messages that embed request input, such as unknown ids, are rendered on every call so that client
+ * input can never fill the cache.
+ */
+public final class ErrorResponseCache {
+    private static final int MAX_ENTRIES = 1_024;
+    private static final BookingJsonCodec CODEC = new BookingJsonCodec();
+    private static final Map<String, RenderedError> FIXED = new ConcurrentHashMap<>();
+
+    private ErrorResponseCache() {
+    }
+
+    public static byte[] bytes(ReservationOutcome outcome) {
+        if (outcome.getRejection() == ReservationOutcome.Rejection.ILLEGAL_TIMESLOT) {
+            return fixed(outcome.getMessage()).bytes;
+        }
+        return render(outcome.getMessage()).bytes;
+    }
+
+    public static String json(Exception exception) {
+        if (exception instanceof IllegalTimeslotException) {
+            return fixed(exception.getMessage()).json;
+        }
+        return render(exception.getMessage()).json;
+    }
+
+    public static byte[] fixedBytes(String message) {
+        return fixed(message).bytes;
+    }
+
+    public static String fixedJson(String message) {
+        return fixed(message).json;
+    }
+
+    private static RenderedError fixed(String message) {
+        String key = message == null ? "" : message;
+        RenderedError rendered = FIXED.get(key);
+        if (rendered != null) {
+            return rendered;
+        }
+        rendered = render(message);
+        if (FIXED.size() < MAX_ENTRIES) {
+            FIXED.putIfAbsent(key, rendered);
+        }
+        return rendered;
+    }
+
+    private static RenderedError render(String message) {
+        try {
+            return new RenderedError(CODEC.writeErrorResponse(message));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class RenderedError {
+        private final String json;
+        private final byte[] bytes;
+
+        RenderedError(byte[] bytes) {
+            this.bytes = bytes;
+            this.json = new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -2,6 +2,6 @@ package net.imanbayli.flat.booking.exception;
 
 public class FlatNotFoundException extends RuntimeException {
     public FlatNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -1,7 +1,7 @@
 package net.imanbayli.flat.booking.exception;
 
-public class IllegalTimeslotException extends RuntimeException{
+public class IllegalTimeslotException extends RuntimeException {
     public IllegalTimeslotException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -1,7 +1,7 @@
 package net.imanbayli.flat.booking.exception;
 
-public class ReservationNotFoundException extends RuntimeException{
+public class ReservationNotFoundException extends RuntimeException {
     public ReservationNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,28 @@
+package net.imanbayli.flat.booking.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("net.imanbayli.flat.booking.FlatService")
+@Label("Flat Service Operation")
+@Category({"Flat Booking", "Service"})
+@Description("A call to a FlatService method")
+@StackTrace(false)
+public class FlatServiceEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Flat Id")
+    public String flatId;
+
+    @Label("Reservation Count")
+    @Description("Reservations returned or changed by the call")
+    public int reservationCount;
+
+    @Label("Outcome")
+    public String outcome;
+}
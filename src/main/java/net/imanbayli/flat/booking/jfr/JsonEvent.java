@@ -0,0 +1,29 @@
+package net.imanbayli.flat.booking.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("net.imanbayli.flat.booking.Json")
+@Label("JSON Codec")
+@Category({"Flat Booking", "HTTP"})
+@Description("Parsing a request body or serialising a response body")
+@StackTrace(false)
+public class JsonEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Type")
+    public String type;
+
+    @Label("Size")
+    @DataAmount
+    public long size;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,27 @@
+package net.imanbayli.flat.booking.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("net.imanbayli.flat.booking.Notification")
+@Label("Notification Dispatch")
+@Category({"Flat Booking", "Notification"})
+@Description("A message handed to the downstream notification service")
+@StackTrace(false)
+public class NotificationEvent extends Event {
+    @Label("User Id")
+    public String userId;
+
+    @Label("Message Length")
+    public int messageLength;
+
+    @Label("Message Count")
+    public int messageCount;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,12 @@
+package net.imanbayli.flat.booking.jfr;
+
+public final class Outcomes {
+    public static final String SUCCESS = "SUCCESS";
+
+    private Outcomes() {
+    }
+
+    public static String of(Throwable failure) {
+        return failure == null ? SUCCESS : failure.getClass().getSimpleName();
+    }
+}
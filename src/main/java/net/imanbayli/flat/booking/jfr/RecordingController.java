@@ -0,0 +1,58 @@
+package net.imanbayli.flat.booking.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+/**
+ * Starts and stops an in-process flight recording with the bundled {@code flat-booking.jfc} profile. Without a
+ * running recording the booking events are disabled and cost nothing.
+ */
+public class RecordingController {
+    public static final String PROFILE = "/flat-booking.jfc";
+
+    private Recording recording;
+
+    public static Configuration profile() throws IOException, ParseException {
+        try (Reader reader = new InputStreamReader(RecordingController.class.getResourceAsStream(PROFILE), StandardCharsets.UTF_8)) {
+            return Configuration.create(reader);
+        }
+    }
+
+    public synchronized boolean start() throws IOException, ParseException {
+        if (recording != null) {
+            return false;
+        }
+        Recording started = new Recording(profile());
+        started.setName("flat-booking");
+        started.setToDisk(true);
+        started.setMaxAge(Duration.ofHours(1));
+        started.start();
+        recording = started;
+        return true;
+    }
+
+    public synchronized Path stop(Path destination) throws IOException {
+        if (recording == null) {
+            return null;
+        }
+        try {
+            recording.dump(destination);
+        } finally {
+            recording.close();
+            recording = null;
+        }
+        return destination;
+    }
+
+    public synchronized boolean isRecording() {
+        return recording != null;
+    }
+}
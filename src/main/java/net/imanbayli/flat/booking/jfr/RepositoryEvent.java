@@ -0,0 +1,32 @@
+package net.imanbayli.flat.booking.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("net.imanbayli.flat.booking.Repository")
+@Label("Flat Repository Operation")
+@Category({"Flat Booking", "Repository"})
+@Description("A FlatRepository lookup or save")
+@StackTrace(false)
+public class RepositoryEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Flat Id")
+    public String flatId;
+
+    @Label("Reservation Count")
+    @Description("Reservations held by the flat")
+    public int reservationCount;
+
+    @Label("Flat Count")
+    @Description("Flats returned by findAll")
+    public int flatCount;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,112 @@
+package net.imanbayli.flat.booking.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+
+public class BookingRules {
+    public static final int MAX_DAYS_FUTURE_BOOKING = 366;
+
+    private int startHour;
+    private int endHour;
+    private int slotMinutes;
+    private int minHoursBeforeBooking;
+    private int maxDaysFutureBooking;
+    private Set<DayOfWeek> closedDays = new HashSet<>();
+    @JsonDeserialize(contentUsing = LocalDateDeserializer.class)
+    @JsonSerialize(contentUsing = LocalDateSerializer.class)
+    private Set<LocalDate> blackoutDates = new HashSet<>();
+
+    public BookingRules() {
+    }
+
+    public BookingRules(int startHour, int endHour, int slotMinutes, int minHoursBeforeBooking, int maxDaysFutureBooking) {
+        this.startHour = startHour;
+        this.endHour = endHour;
+        this.slotMinutes = slotMinutes;
+        this.minHoursBeforeBooking = minHoursBeforeBooking;
+        this.maxDaysFutureBooking = maxDaysFutureBooking;
+    }
+
+    public static BookingRules defaults() {
+        return new BookingRules(10, 19, 20, 24, 7);
+    }
+
+    public void validate() {
+        if (startHour < 0 || endHour > 23 || startHour > endHour) {
+            throw new IllegalArgumentException("Viewing hours must be within 0-23 and start before they end");
+        }
+        if (slotMinutes <= 0 || slotMinutes > 24 * 60) {
+            throw new IllegalArgumentException("Slot length must be between 1 and 1440 minutes");
+        }
+        if (minHoursBeforeBooking < 0 || maxDaysFutureBooking <= 0) {
+            throw new IllegalArgumentException("Booking window must be positive");
+        }
+        if (maxDaysFutureBooking > MAX_DAYS_FUTURE_BOOKING || minHoursBeforeBooking > maxDaysFutureBooking * 24) {
+            throw new IllegalArgumentException("Bookings can be opened at most " + MAX_DAYS_FUTURE_BOOKING
+                    + " days ahead, and the minimum notice must fit in that window");
+        }
+    }
+
+    public int getStartHour() {
+        return startHour;
+    }
+
+    public void setStartHour(int startHour) {
+        this.startHour = startHour;
+    }
+
+    public int getEndHour() {
+        return endHour;
+    }
+
+    public void setEndHour(int endHour) {
+        this.endHour = endHour;
+    }
+
+    public int getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    public void setSlotMinutes(int slotMinutes) {
+        this.slotMinutes = slotMinutes;
+    }
+
+    public int getMinHoursBeforeBooking() {
+        return minHoursBeforeBooking;
+    }
+
+    public void setMinHoursBeforeBooking(int minHoursBeforeBooking) {
+        this.minHoursBeforeBooking = minHoursBeforeBooking;
+    }
+
+    public int getMaxDaysFutureBooking() {
+        return maxDaysFutureBooking;
+    }
+
+    public void setMaxDaysFutureBooking(int maxDaysFutureBooking) {
+        this.maxDaysFutureBooking = maxDaysFutureBooking;
+    }
+
+    public Set<DayOfWeek> getClosedDays() {
+        return closedDays;
+    }
+
+    public void setClosedDays(Set<DayOfWeek> closedDays) {
+        this.closedDays = closedDays;
+    }
+
+    public Set<LocalDate> getBlackoutDates() {
+        return blackoutDates;
+    }
+
+    public void setBlackoutDates(Set<LocalDate> blackoutDates) {
+        this.blackoutDates = blackoutDates;
+    }
+}
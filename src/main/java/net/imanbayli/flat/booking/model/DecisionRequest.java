@@ -0,0 +1,42 @@
+package net.imanbayli.flat.booking.model;
+
+public class DecisionRequest {
+    private String flatId;
+    private String reservationId;
+    private Decision decision;
+
+    public enum Decision { APPROVE, REJECT }
+
+    public DecisionRequest() {
+    }
+
+    public DecisionRequest(String flatId, String reservationId, Decision decision) {
+        this.flatId = flatId;
+        this.reservationId = reservationId;
+        this.decision = decision;
+    }
+
+    public String getFlatId() {
+        return flatId;
+    }
+
+    public void setFlatId(String flatId) {
+        this.flatId = flatId;
+    }
+
+    public String getReservationId() {
+        return reservationId;
+    }
+
+    public void setReservationId(String reservationId) {
+        this.reservationId = reservationId;
+    }
+
+    public Decision getDecision() {
+        return decision;
+    }
+
+    public void setDecision(Decision decision) {
+        this.decision = decision;
+    }
+}
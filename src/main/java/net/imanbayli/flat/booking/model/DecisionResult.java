@@ -0,0 +1,70 @@
+package net.imanbayli.flat.booking.model;
+
+public class DecisionResult {
+    private String flatId;
+    private String reservationId;
+    private DecisionRequest.Decision decision;
+    private boolean success;
+    private String message;
+
+    public DecisionResult() {
+    }
+
+    private DecisionResult(DecisionRequest request, boolean success, String message) {
+        if (request != null) {
+            this.flatId = request.getFlatId();
+            this.reservationId = request.getReservationId();
+            this.decision = request.getDecision();
+        }
+        this.success = success;
+        this.message = message;
+    }
+
+    public static DecisionResult succeeded(DecisionRequest request) {
+        return new DecisionResult(request, true, null);
+    }
+
+    public static DecisionResult failed(DecisionRequest request, String message) {
+        return new DecisionResult(request, false, message);
+    }
+
+    public String getFlatId() {
+        return flatId;
+    }
+
+    public void setFlatId(String flatId) {
+        this.flatId = flatId;
+    }
+
+    public String getReservationId() {
+        return reservationId;
+    }
+
+    public void setReservationId(String reservationId) {
+        this.reservationId = reservationId;
+    }
+
+    public DecisionRequest.Decision getDecision() {
+        return decision;
+    }
+
+    public void setDecision(DecisionRequest.Decision decision) {
+        this.decision = decision;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
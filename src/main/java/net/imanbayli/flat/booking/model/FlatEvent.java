@@ -0,0 +1,149 @@
+package net.imanbayli.flat.booking.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+
+import java.time.LocalDateTime;
+
+public class FlatEvent {
+    public enum WaitlistChange { JOINED, LEFT }
+
+    private String flatId;
+    private String reservationId;
+    @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+    @JsonSerialize(using = LocalDateTimeSerializer.class)
+    private LocalDateTime dateTime;
+    private ReserveSlot.Status status;
+    private String tenantId;
+    private long timestamp;
+    private BookingRules rules;
+    private WaitlistChange waitlist;
+
+    public FlatEvent() {
+    }
+
+    public static FlatEvent of(String flatId, ReserveSlot slot) {
+        FlatEvent event = new FlatEvent();
+        event.setFlatId(flatId);
+        event.setReservationId(slot.getId());
+        event.setDateTime(slot.getDateTime());
+        event.setStatus(slot.getStatus());
+        event.setTenantId(slot.getTenantId());
+        event.setTimestamp(System.currentTimeMillis());
+        return event;
+    }
+
+    public static FlatEvent ofRules(String flatId, BookingRules rules) {
+        FlatEvent event = new FlatEvent();
+        event.setFlatId(flatId);
+        event.setRules(rules);
+        event.setTimestamp(System.currentTimeMillis());
+        return event;
+    }
+
+    public static FlatEvent ofWaitlist(String flatId, WaitlistChange change, WaitlistEntry entry) {
+        FlatEvent event = new FlatEvent();
+        event.setFlatId(flatId);
+        event.setWaitlist(change);
+        event.setReservationId(entry.getId());
+        event.setTenantId(entry.getTenantId());
+        event.setDateTime(entry.getDateTime());
+        event.setTimestamp(System.currentTimeMillis());
+        return event;
+    }
+
+    @JsonIgnore
+    public boolean isWaitlistChange() {
+        return waitlist != null;
+    }
+
+    @JsonIgnore
+    public boolean isRulesChange() {
+        return rules != null;
+    }
+
+    @JsonIgnore
+    public boolean isOccupying() {
+        return status == ReserveSlot.Status.APPROVED || status == ReserveSlot.Status.PENDING;
+    }
+
+    public String getFlatId() {
+        return flatId;
+    }
+
+    public void setFlatId(String flatId) {
+        this.flatId = flatId;
+    }
+
+    public String getReservationId() {
+        return reservationId;
+    }
+
+    public void setReservationId(String reservationId) {
+        this.reservationId = reservationId;
+    }
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    public void setDateTime(LocalDateTime dateTime) {
+        this.dateTime = dateTime;
+    }
+
+    public ReserveSlot.Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReserveSlot.Status status) {
+        this.status = status;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(String tenantId) {
+        this.tenantId = tenantId;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public BookingRules getRules() {
+        return rules;
+    }
+
+    public void setRules(BookingRules rules) {
+        this.rules = rules;
+    }
+
+    public WaitlistChange getWaitlist() {
+        return waitlist;
+    }
+
+    public void setWaitlist(WaitlistChange waitlist) {
+        this.waitlist = waitlist;
+    }
+
+    @Override
+    public String toString() {
+        return "FlatEvent{" +
+                "flatId='" + flatId + '\'' +
+                ", reservationId='" + reservationId + '\'' +
+                ", dateTime=" + dateTime +
+                ", status=" + status +
+                ", tenantId='" + tenantId + '\'' +
+                ", waitlist=" + waitlist +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
@@ -0,0 +1,35 @@
+package net.imanbayli.flat.booking.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+public class FlatOccupancy {
+    private final String flatId;
+    private final List<String> occupiedDates;
+    private final byte[] json;
+    private final Set<LocalDateTime> unavailableSlots;
+
+    public FlatOccupancy(String flatId, List<String> occupiedDates, byte[] json, Set<LocalDateTime> unavailableSlots) {
+        this.flatId = flatId;
+        this.occupiedDates = occupiedDates;
+        this.json = json;
+        this.unavailableSlots = unavailableSlots;
+    }
+
+    public String getFlatId() {
+        return flatId;
+    }
+
+    public List<String> getOccupiedDates() {
+        return occupiedDates;
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    public Set<LocalDateTime> getUnavailableSlots() {
+        return unavailableSlots;
+    }
+}
@@ -0,0 +1,50 @@
+package net.imanbayli.flat.booking.model;
+
+public class LandlordRatios {
+    private long reservations;
+    private double approvalRatio;
+    private double rejectionRatio;
+    private double cancelRatio;
+
+    public LandlordRatios() {
+    }
+
+    public LandlordRatios(long reservations, double approvalRatio, double rejectionRatio, double cancelRatio) {
+        this.reservations = reservations;
+        this.approvalRatio = approvalRatio;
+        this.rejectionRatio = rejectionRatio;
+        this.cancelRatio = cancelRatio;
+    }
+
+    public long getReservations() {
+        return reservations;
+    }
+
+    public void setReservations(long reservations) {
+        this.reservations = reservations;
+    }
+
+    public double getApprovalRatio() {
+        return approvalRatio;
+    }
+
+    public void setApprovalRatio(double approvalRatio) {
+        this.approvalRatio = approvalRatio;
+    }
+
+    public double getRejectionRatio() {
+        return rejectionRatio;
+    }
+
+    public void setRejectionRatio(double rejectionRatio) {
+        this.rejectionRatio = rejectionRatio;
+    }
+
+    public double getCancelRatio() {
+        return cancelRatio;
+    }
+
+    public void setCancelRatio(double cancelRatio) {
+        this.cancelRatio = cancelRatio;
+    }
+}
@@ -0,0 +1,29 @@
+package net.imanbayli.flat.booking.model;
+
+public class Notification {
+    private final String userId;
+    private final String flatId;
+    private final String message;
+
+    public Notification(String userId, String message) {
+        this(userId, null, message);
+    }
+
+    public Notification(String userId, String flatId, String message) {
+        this.userId = userId;
+        this.flatId = flatId;
+        this.message = message;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getFlatId() {
+        return flatId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,88 @@
+package net.imanbayli.flat.booking.model;
+
+import java.util.List;
+import java.util.Map;
+
+public class OccupancyReport {
+    private String generatedAt;
+    private int flats;
+    private long reservations;
+    private long incompleteReservations;
+    private Map<String, Double> occupancyByFlat;
+    private Map<String, Double> occupancyByCity;
+    private Map<String, LandlordRatios> landlords;
+    private long[] reservationsByHour;
+    private List<Integer> peakHours;
+
+    public String getGeneratedAt() {
+        return generatedAt;
+    }
+
+    public void setGeneratedAt(String generatedAt) {
+        this.generatedAt = generatedAt;
+    }
+
+    public int getFlats() {
+        return flats;
+    }
+
+    public void setFlats(int flats) {
+        this.flats = flats;
+    }
+
+    public long getReservations() {
+        return reservations;
+    }
+
+    public void setReservations(long reservations) {
+        this.reservations = reservations;
+    }
+
+    public long getIncompleteReservations() {
+        return incompleteReservations;
+    }
+
+    public void setIncompleteReservations(long incompleteReservations) {
+        this.incompleteReservations = incompleteReservations;
+    }
+
+    public Map<String, Double> getOccupancyByFlat() {
+        return occupancyByFlat;
+    }
+
+    public void setOccupancyByFlat(Map<String, Double> occupancyByFlat) {
+        this.occupancyByFlat = occupancyByFlat;
+    }
+
+    public Map<String, Double> getOccupancyByCity() {
+        return occupancyByCity;
+    }
+
+    public void setOccupancyByCity(Map<String, Double> occupancyByCity) {
+        this.occupancyByCity = occupancyByCity;
+    }
+
+    public Map<String, LandlordRatios> getLandlords() {
+        return landlords;
+    }
+
+    public void setLandlords(Map<String, LandlordRatios> landlords) {
+        this.landlords = landlords;
+    }
+
+    public long[] getReservationsByHour() {
+        return reservationsByHour;
+    }
+
+    public void setReservationsByHour(long[] reservationsByHour) {
+        this.reservationsByHour = reservationsByHour;
+    }
+
+    public List<Integer> getPeakHours() {
+        return peakHours;
+    }
+
+    public void setPeakHours(List<Integer> peakHours) {
+        this.peakHours = peakHours;
+    }
+}
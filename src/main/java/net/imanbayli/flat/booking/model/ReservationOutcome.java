@@ -0,0 +1,57 @@
+package net.imanbayli.flat.booking.model;
+
+import net.imanbayli.flat.booking.exception.FlatNotFoundException;
+import net.imanbayli.flat.booking.exception.IllegalTimeslotException;
+import net.imanbayli.flat.booking.exception.ReservationNotFoundException;
+
+public class ReservationOutcome {
+    private final ReservationResponse response;
+    private final Rejection rejection;
+    private final String message;
+
+    public enum Rejection { ILLEGAL_TIMESLOT, FLAT_NOT_FOUND, RESERVATION_NOT_FOUND }
+
+    private ReservationOutcome(ReservationResponse response, Rejection rejection, String message) {
+        this.response = response;
+        this.rejection = rejection;
+        this.message = message;
+    }
+
+    public static ReservationOutcome accepted(ReservationResponse response) {
+        return new ReservationOutcome(response, null, null);
+    }
+
+    public static ReservationOutcome rejected(Rejection rejection, String message) {
+        return new ReservationOutcome(null, rejection, message);
+    }
+
+    public boolean isRejected() {
+        return rejection != null;
+    }
+
+    public ReservationResponse getResponse() {
+        return response;
+    }
+
+    public Rejection getRejection() {
+        return rejection;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public ReservationResponse orElseThrow() {
+        if (rejection == null) {
+            return response;
+        }
+        switch (rejection) {
+            case FLAT_NOT_FOUND:
+                throw new FlatNotFoundException(message);
+            case RESERVATION_NOT_FOUND:
+                throw new ReservationNotFoundException(message);
+            default:
+                throw new IllegalTimeslotException(message);
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package net.imanbayli.flat.booking.model;
 
 public class Tenant {
+    /**
+     * Longest tenant id, in UTF-8 bytes, that every flat repository can store with a reservation.
+     */
+    public static final int MAX_ID_BYTES = 46;
+
     private String id;
     private String firstname;
     private String lastname;
@@ -0,0 +1,27 @@
+package net.imanbayli.flat.booking.model;
+
+import java.time.LocalDateTime;
+
+public class WaitlistEntry {
+    private final String id;
+    private final String tenantId;
+    private final LocalDateTime dateTime;
+
+    public WaitlistEntry(String id, String tenantId, LocalDateTime dateTime) {
+        this.id = id;
+        this.tenantId = tenantId;
+        this.dateTime = dateTime;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+}
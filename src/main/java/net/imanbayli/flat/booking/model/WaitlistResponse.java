@@ -0,0 +1,34 @@
+package net.imanbayli.flat.booking.model;
+
+/**
+ * Position 0 means the timeslot was free and {@code id} is the new reservation; otherwise {@code id} becomes the
+ * reservation id once the entry is promoted.
+ */
+public class WaitlistResponse {
+    private String id;
+    private int position;
+
+    public WaitlistResponse() {
+    }
+
+    public WaitlistResponse(String id, int position) {
+        this.id = id;
+        this.position = position;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public void setPosition(int position) {
+        this.position = position;
+    }
+}
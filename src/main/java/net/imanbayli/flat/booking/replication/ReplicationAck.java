@@ -0,0 +1,50 @@
+package net.imanbayli.flat.booking.replication;
+
+public class ReplicationAck {
+    private long lastApplied;
+    private String incarnation;
+    private long epoch;
+    private boolean resyncRequired;
+
+    public ReplicationAck() {
+    }
+
+    public ReplicationAck(long lastApplied, String incarnation, long epoch, boolean resyncRequired) {
+        this.lastApplied = lastApplied;
+        this.incarnation = incarnation;
+        this.epoch = epoch;
+        this.resyncRequired = resyncRequired;
+    }
+
+    public long getLastApplied() {
+        return lastApplied;
+    }
+
+    public void setLastApplied(long lastApplied) {
+        this.lastApplied = lastApplied;
+    }
+
+    public String getIncarnation() {
+        return incarnation;
+    }
+
+    public void setIncarnation(String incarnation) {
+        this.incarnation = incarnation;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public void setEpoch(long epoch) {
+        this.epoch = epoch;
+    }
+
+    public boolean isResyncRequired() {
+        return resyncRequired;
+    }
+
+    public void setResyncRequired(boolean resyncRequired) {
+        this.resyncRequired = resyncRequired;
+    }
+}
@@ -0,0 +1,53 @@
+package net.imanbayli.flat.booking.replication;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReplicationBatch {
+    private long epoch;
+    private long epochStartIndex;
+    private long leaderIndex;
+    private List<ReplicationEntry> entries = new ArrayList<>();
+
+    public ReplicationBatch() {
+    }
+
+    public ReplicationBatch(long epoch, long epochStartIndex, long leaderIndex, List<ReplicationEntry> entries) {
+        this.epoch = epoch;
+        this.epochStartIndex = epochStartIndex;
+        this.leaderIndex = leaderIndex;
+        this.entries = entries;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public void setEpoch(long epoch) {
+        this.epoch = epoch;
+    }
+
+    public long getEpochStartIndex() {
+        return epochStartIndex;
+    }
+
+    public void setEpochStartIndex(long epochStartIndex) {
+        this.epochStartIndex = epochStartIndex;
+    }
+
+    public long getLeaderIndex() {
+        return leaderIndex;
+    }
+
+    public void setLeaderIndex(long leaderIndex) {
+        this.leaderIndex = leaderIndex;
+    }
+
+    public List<ReplicationEntry> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<ReplicationEntry> entries) {
+        this.entries = entries;
+    }
+}
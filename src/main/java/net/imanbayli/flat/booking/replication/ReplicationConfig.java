@@ -0,0 +1,59 @@
+package net.imanbayli.flat.booking.replication;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ReplicationConfig {
+    public enum Role { LEADER, FOLLOWER }
+
+    public static final String SECRET_HEADER = "X-Replication-Secret";
+    public static final long DEFAULT_LEASE_MILLIS = 3_000;
+
+    private final Role role;
+    private final List<String> followers;
+    private final String secret;
+    private final long leaseMillis;
+
+    public ReplicationConfig(Role role, List<String> followers, String secret, long leaseMillis) {
+        this.role = role;
+        this.followers = followers;
+        this.secret = secret;
+        this.leaseMillis = leaseMillis;
+    }
+
+    public static ReplicationConfig fromSystemProperties() {
+        Role role = Role.valueOf(System.getProperty("replication.role", "leader").toUpperCase());
+        List<String> followers = Arrays.stream(System.getProperty("replication.followers", "").split(","))
+                .map(String::trim)
+                .filter(f -> !f.isEmpty())
+                .collect(Collectors.toList());
+        String secret = System.getProperty("replication.secret", "");
+        return new ReplicationConfig(role, followers, secret.isBlank() ? null : secret,
+                Long.getLong("replication.leaseMillis", DEFAULT_LEASE_MILLIS));
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    public List<String> getFollowers() {
+        return followers;
+    }
+
+    /**
+     * Shared secret that nodes send in {@link #SECRET_HEADER} on replication calls; without one those endpoints
+     * refuse every request.
+     */
+    public String getSecret() {
+        return secret;
+    }
+
+    /**
+     * How long a follower acknowledgement lets a leader keep accepting writes, and how long a follower must not have
+     * heard from its leader before it may be promoted. 0 turns the lease off.
+     */
+    public long getLeaseMillis() {
+        return leaseMillis;
+    }
+}
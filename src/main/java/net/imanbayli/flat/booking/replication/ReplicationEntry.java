@@ -0,0 +1,32 @@
+package net.imanbayli.flat.booking.replication;
+
+import net.imanbayli.flat.booking.model.FlatEvent;
+
+public class ReplicationEntry {
+    private long index;
+    private FlatEvent event;
+
+    public ReplicationEntry() {
+    }
+
+    public ReplicationEntry(long index, FlatEvent event) {
+        this.index = index;
+        this.event = event;
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    public void setIndex(long index) {
+        this.index = index;
+    }
+
+    public FlatEvent getEvent() {
+        return event;
+    }
+
+    public void setEvent(FlatEvent event) {
+        this.event = event;
+    }
+}
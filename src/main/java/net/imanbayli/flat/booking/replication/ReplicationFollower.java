@@ -0,0 +1,154 @@
+package net.imanbayli.flat.booking.replication;
+
+import net.imanbayli.flat.booking.model.Flat;
+import net.imanbayli.flat.booking.model.FlatEvent;
+import net.imanbayli.flat.booking.model.ReserveSlot;
+import net.imanbayli.flat.booking.model.WaitlistEntry;
+import net.imanbayli.flat.booking.repository.FlatRepository;
+import net.imanbayli.flat.booking.service.BookingRulesRegistry;
+import net.imanbayli.flat.booking.service.FlatEventListener;
+import net.imanbayli.flat.booking.service.WaitlistRegistry;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Follower side of log shipping. Batches may arrive out of order because the leader pipelines them, so entries
+ * ahead of the applied index are buffered and applied strictly in log order. Acks carry an incarnation id that
+ * changes on every start, which tells the leader that a lower applied index means a restart, not a late ack.
+ * <p>
+ * Batches from an older epoch are refused, and the ack's epoch tells that leader to step down. A batch from a newer
+ * epoch is only followed when the new leader's log starts where this follower stopped; otherwise the follower's
+ * state has diverged and it stops applying until it is resynced.
+ */
+public class ReplicationFollower {
+    private static final int MAX_BUFFERED = 10_000;
+
+    private final FlatRepository flatRepository;
+    private final BookingRulesRegistry bookingRulesRegistry;
+    private final WaitlistRegistry waitlistRegistry;
+    private final List<FlatEventListener> eventListeners;
+    private final TreeMap<Long, ReplicationEntry> buffered = new TreeMap<>();
+    private final String incarnation = UUID.randomUUID().toString();
+    private long lastApplied;
+    private long leaderIndex;
+    private long caughtUpAt = System.currentTimeMillis();
+    private long epoch;
+    private boolean resyncRequired;
+    private long lastContactAt;
+
+    public ReplicationFollower(FlatRepository flatRepository, BookingRulesRegistry bookingRulesRegistry,
+                               WaitlistRegistry waitlistRegistry, List<FlatEventListener> eventListeners) {
+        this.flatRepository = flatRepository;
+        this.bookingRulesRegistry = bookingRulesRegistry;
+        this.waitlistRegistry = waitlistRegistry;
+        this.eventListeners = eventListeners;
+    }
+
+    public synchronized ReplicationAck append(ReplicationBatch batch) {
+        if (batch.getEpoch() < epoch) {
+            return new ReplicationAck(lastApplied, incarnation, epoch, resyncRequired);
+        }
+        if (batch.getEpoch() > epoch) {
+            System.out.println("Following leader epoch " + batch.getEpoch() + " from index " + batch.getEpochStartIndex());
+            epoch = batch.getEpoch();
+            leaderIndex = 0;
+            buffered.clear();
+            if (lastApplied != batch.getEpochStartIndex() && !resyncRequired) {
+                System.out.println("Applied log index " + lastApplied + " does not match the start of epoch " + epoch
+                        + " at " + batch.getEpochStartIndex() + ", a resync is required");
+                resyncRequired = true;
+            }
+        }
+        lastContactAt = System.currentTimeMillis();
+        if (resyncRequired) {
+            return new ReplicationAck(lastApplied, incarnation, epoch, true);
+        }
+        leaderIndex = Math.max(leaderIndex, batch.getLeaderIndex());
+        for (ReplicationEntry entry : batch.getEntries()) {
+            if (entry.getIndex() > lastApplied && buffered.size() < MAX_BUFFERED) {
+                buffered.put(entry.getIndex(), entry);
+            }
+        }
+        while (!buffered.isEmpty() && buffered.firstKey() == lastApplied + 1) {
+            apply(buffered.pollFirstEntry().getValue().getEvent());
+            lastApplied++;
+        }
+        if (lastApplied >= leaderIndex) {
+            caughtUpAt = System.currentTimeMillis();
+        }
+        return new ReplicationAck(lastApplied, incarnation, epoch, false);
+    }
+
+    /**
+     * Marks the local state as diverged from the replicated log, for a leader that stepped down after accepting
+     * writes its successor never saw.
+     */
+    public synchronized void requireResync() {
+        resyncRequired = true;
+    }
+
+    public synchronized boolean isResyncRequired() {
+        return resyncRequired;
+    }
+
+    public synchronized long getEpoch() {
+        return epoch;
+    }
+
+    public synchronized long getLastContactAt() {
+        return lastContactAt;
+    }
+
+    public synchronized long getLastApplied() {
+        return lastApplied;
+    }
+
+    public synchronized long getLagEntries() {
+        return Math.max(0, leaderIndex - lastApplied);
+    }
+
+    public synchronized long getLagMillis() {
+        return leaderIndex <= lastApplied ? 0 : System.currentTimeMillis() - caughtUpAt;
+    }
+
+    private void apply(FlatEvent event) {
+        if (event.isRulesChange()) {
+            bookingRulesRegistry.register(event.getFlatId(), event.getRules());
+            return;
+        }
+        if (event.isWaitlistChange()) {
+            if (event.getWaitlist() == FlatEvent.WaitlistChange.JOINED) {
+                waitlistRegistry.add(event.getFlatId(),
+                        new WaitlistEntry(event.getReservationId(), event.getTenantId(), event.getDateTime()));
+            } else {
+                waitlistRegistry.withdraw(event.getFlatId(), event.getReservationId(), event.getTenantId());
+            }
+            return;
+        }
+        Optional<Flat> found = flatRepository.findById(event.getFlatId());
+        if (found.isEmpty()) {
+            System.out.println("Skipping replicated event for unknown flat: " + event);
+            return;
+        }
+        Flat flat = found.get();
+        ReserveSlot slot = flat.getReserves().stream()
+                .filter(r -> r.getId().equals(event.getReservationId()))
+                .findAny()
+                .orElseGet(() -> {
+                    ReserveSlot created = new ReserveSlot();
+                    created.setId(event.getReservationId());
+                    flat.getReserves().add(created);
+                    return created;
+                });
+        slot.setDateTime(event.getDateTime());
+        slot.setStatus(event.getStatus());
+        slot.setTenantId(event.getTenantId());
+        flatRepository.save(flat);
+        for (FlatEventListener listener : eventListeners) {
+            listener.onEvent(event);
+        }
+    }
+}
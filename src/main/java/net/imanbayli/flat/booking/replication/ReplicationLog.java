@@ -0,0 +1,277 @@
+package net.imanbayli.flat.booking.replication;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.imanbayli.flat.booking.model.FlatEvent;
+import net.imanbayli.flat.booking.service.FlatEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Leader side of log shipping. Bookings only append to the in-memory log; one shipper thread per follower sends
+ * batches of up to {@link #MAX_BATCH} entries and keeps up to {@link #MAX_IN_FLIGHT} batches in flight, so a
+ * booking never waits for a follower round trip. Entries are dropped once every follower has acknowledged them.
+ * The log is a ring of {@link #MAX_RETAINED} entries addressed by log index, so appending never shifts entries
+ * even when a follower is down and the log is full.
+ * <p>
+ * Every batch carries the leader's epoch, which grows with each activation, and the index the epoch started at, so a
+ * follower can tell a restarted or newly promoted leader from the one it was following. A leader that sees a higher
+ * epoch in an acknowledgement steps down. With a lease configured the leader only holds its write lease while some
+ * follower has acknowledged a batch sent within the lease, and a follower may only be promoted once it has not
+ * heard from its leader for that long, so a partition never leaves two writable nodes.
+ */
+public class ReplicationLog implements FlatEventListener {
+    private static final int MAX_BATCH = 256;
+    private static final int MAX_IN_FLIGHT = 4;
+    private static final int MAX_RETAINED = 100_000;
+    private static final long HEARTBEAT_MILLIS = 1_000;
+    private static final long RETRY_MILLIS = 500;
+
+    private final List<FollowerShipper> shippers = new ArrayList<>();
+    private final ReplicationEntry[] entries;
+    private final HttpClient httpClient;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final String secret;
+    private final long leaseMillis;
+    private final Runnable onStepDown;
+    private long firstIndex = 1;
+    private long lastIndex;
+    private long epoch;
+    private long epochStartIndex;
+    private boolean active;
+
+    public ReplicationLog(ReplicationConfig config, Runnable onStepDown) {
+        List<String> followers = config.getFollowers();
+        this.secret = config.getSecret();
+        this.leaseMillis = config.getLeaseMillis();
+        this.onStepDown = onStepDown;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+        this.entries = new ReplicationEntry[followers.isEmpty() ? 0 : MAX_RETAINED];
+        for (String follower : followers) {
+            FollowerShipper shipper = new FollowerShipper(follower);
+            shippers.add(shipper);
+            Thread thread = new Thread(shipper, "replication-shipper-" + follower);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    public synchronized void activate(long startIndex, long epoch) {
+        Arrays.fill(entries, null);
+        this.epoch = epoch;
+        epochStartIndex = startIndex;
+        lastIndex = startIndex;
+        firstIndex = startIndex + 1;
+        for (FollowerShipper shipper : shippers) {
+            shipper.nextIndex = startIndex + 1;
+            shipper.matchIndex = startIndex;
+            shipper.leaseFrom = 0;
+            shipper.resyncRequired = false;
+            shipper.incarnation = null;
+        }
+        active = true;
+        notifyAll();
+    }
+
+    @Override
+    public synchronized void onEvent(FlatEvent event) {
+        if (!active || shippers.isEmpty()) {
+            return;
+        }
+        lastIndex++;
+        entries[slotOf(lastIndex)] = new ReplicationEntry(lastIndex, event);
+        if (lastIndex - firstIndex >= MAX_RETAINED) {
+            firstIndex++;
+        }
+        notifyAll();
+    }
+
+    public synchronized long getLastIndex() {
+        return lastIndex;
+    }
+
+    public synchronized long getEpoch() {
+        return epoch;
+    }
+
+    public synchronized boolean holdsLease() {
+        if (!active) {
+            return false;
+        }
+        if (leaseMillis <= 0 || shippers.isEmpty()) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        for (FollowerShipper shipper : shippers) {
+            if (now - shipper.leaseFrom < leaseMillis) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized Map<String, Long> getFollowerLag() {
+        Map<String, Long> lag = new LinkedHashMap<>();
+        for (FollowerShipper shipper : shippers) {
+            lag.put(shipper.follower, shipper.resyncRequired ? -1 : lastIndex - shipper.matchIndex);
+        }
+        return lag;
+    }
+
+    private void trim() {
+        long acknowledged = Long.MAX_VALUE;
+        for (FollowerShipper shipper : shippers) {
+            acknowledged = Math.min(acknowledged, shipper.matchIndex);
+        }
+        long trimTo = Math.min(acknowledged, lastIndex);
+        for (; firstIndex <= trimTo; firstIndex++) {
+            entries[slotOf(firstIndex)] = null;
+        }
+    }
+
+    private int slotOf(long index) {
+        return (int) (index % MAX_RETAINED);
+    }
+
+    private class FollowerShipper implements Runnable {
+        private final String follower;
+        private long nextIndex = 1;
+        private long matchIndex;
+        private int inFlight;
+        private long lastSentAt;
+        private long retryAt;
+        private boolean resyncRequired;
+        private String incarnation;
+        private long leaseFrom;
+
+        FollowerShipper(String follower) {
+            this.follower = follower;
+        }
+
+        @Override
+        public void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    ReplicationBatch batch = nextBatch();
+                    send(batch, System.currentTimeMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        private ReplicationBatch nextBatch() throws InterruptedException {
+            synchronized (ReplicationLog.this) {
+                while (true) {
+                    long now = System.currentTimeMillis();
+                    if (active && !resyncRequired && inFlight < MAX_IN_FLIGHT && now >= retryAt) {
+                        if (inFlight == 0 && nextIndex > matchIndex + 1) {
+                            nextIndex = matchIndex + 1;
+                        }
+                        if (nextIndex < firstIndex) {
+                            resyncRequired = true;
+                            System.out.println("Follower " + follower + " is behind the retained log and needs a resync");
+                            continue;
+                        }
+                        if (nextIndex <= lastIndex || (inFlight == 0 && now - lastSentAt >= HEARTBEAT_MILLIS)) {
+                            long to = Math.min(lastIndex, nextIndex + MAX_BATCH - 1);
+                            List<ReplicationEntry> batch = new ArrayList<>((int) Math.max(0, to - nextIndex + 1));
+                            for (long index = nextIndex; index <= to; index++) {
+                                batch.add(entries[slotOf(index)]);
+                            }
+                            nextIndex += batch.size();
+                            inFlight++;
+                            lastSentAt = now;
+                            return new ReplicationBatch(epoch, epochStartIndex, lastIndex, batch);
+                        }
+                    }
+                    ReplicationLog.this.wait(Math.max(1, Math.min(HEARTBEAT_MILLIS, retryAt - now)));
+                }
+            }
+        }
+
+        private void send(ReplicationBatch batch, long sentAt) {
+            byte[] body;
+            try {
+                body = mapper.writeValueAsBytes(batch);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://" + follower + "/v1/replication/append"))
+                    .timeout(Duration.ofSeconds(5))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+            if (secret != null) {
+                request.header(ReplicationConfig.SECRET_HEADER, secret);
+            }
+            httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                    .whenComplete((response, error) -> acknowledge(response, error, batch.getEpoch(), sentAt));
+        }
+
+        private void acknowledge(HttpResponse<byte[]> response, Throwable error, long batchEpoch, long sentAt) {
+            ReplicationAck ack = null;
+            if (error == null && (response.statusCode() == 200 || response.statusCode() == 409)) {
+                try {
+                    ack = mapper.readValue(response.body(), ReplicationAck.class);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            boolean steppedDown = false;
+            synchronized (ReplicationLog.this) {
+                inFlight--;
+                if (!active || batchEpoch != epoch) {
+                    ReplicationLog.this.notifyAll();
+                    return;
+                }
+                if (ack != null && ack.getEpoch() > epoch) {
+                    System.out.println("Follower " + follower + " has seen epoch " + ack.getEpoch()
+                            + ", stepping down from epoch " + epoch);
+                    active = false;
+                    steppedDown = true;
+                } else if (ack == null || response.statusCode() != 200) {
+                    nextIndex = matchIndex + 1;
+                    retryAt = System.currentTimeMillis() + RETRY_MILLIS;
+                } else if (ack.isResyncRequired() || ack.getLastApplied() > lastIndex) {
+                    if (!resyncRequired) {
+                        System.out.println("Follower " + follower + " diverged at log index " + ack.getLastApplied()
+                                + " and needs a resync");
+                    }
+                    resyncRequired = true;
+                } else if (!Objects.equals(incarnation, ack.getIncarnation())
+                        && ack.getLastApplied() < matchIndex) {
+                    System.out.println("Follower " + follower + " restarted at log index " + ack.getLastApplied()
+                            + ", rewinding from " + matchIndex);
+                    incarnation = ack.getIncarnation();
+                    matchIndex = ack.getLastApplied();
+                    nextIndex = matchIndex + 1;
+                } else {
+                    incarnation = ack.getIncarnation();
+                    matchIndex = Math.max(matchIndex, ack.getLastApplied());
+                    leaseFrom = Math.max(leaseFrom, sentAt);
+                    trim();
+                }
+                ReplicationLog.this.notifyAll();
+            }
+            if (steppedDown) {
+                onStepDown.run();
+            }
+        }
+    }
+}
@@ -3,12 +3,14 @@ package net.imanbayli.flat.booking.repository.provider;
 import net.imanbayli.flat.booking.model.Flat;
 import net.imanbayli.flat.booking.repository.FlatRepository;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class FlatRepositoryInMemoryProvider implements FlatRepository {
-    private static Map<String, Flat> data = new HashMap<>();
+    private static Map<String, Flat> data = new ConcurrentHashMap<>();
 
     @Override
     public Optional<Flat> findById(String id) {
@@ -20,5 +22,9 @@ public class FlatRepositoryInMemoryProvider implements FlatRepository {
         data.put(flat.getId(), flat);
     }
 
+    @Override
+    public List<Flat> findAll() {
+        return new ArrayList<>(data.values());
+    }
 
 }
@@ -0,0 +1,428 @@
+package net.imanbayli.flat.booking.repository.provider;
+
+import net.imanbayli.flat.booking.model.Flat;
+import net.imanbayli.flat.booking.model.Landlord;
+import net.imanbayli.flat.booking.model.ReserveSlot;
+import net.imanbayli.flat.booking.repository.FlatRepository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps every flat in a fixed-size record of a memory-mapped file, so the heap only holds the {@link Flat} views that
+ * callers are currently using. An open-addressing table of record numbers, stored in the same file, maps flat ids to
+ * records; reopening the file restores both.
+ * <p>
+ * File layout: a 64 byte header, the index ({@code indexCapacity} longs, 0 meaning empty, otherwise record number + 1)
+ * and {@code maxFlats} records. A record starts with a sequence number that is odd while the record is being
+ * written, so readers retry instead of decoding a half-written flat. Every field is encoded and size-checked before
+ * the sequence is made odd, so a rejected save leaves the record untouched.
+ * <p>
+ * A record holds at most {@code maxSlotsPerFlat} reservations, and saving a flat with more is rejected. With
+ * {@code compactHistory} the cancelled and past reservations of such a flat are left out of the record instead, which
+ * permanently deletes that history: after a restart analytics no longer see those reservations. Only a flat with more
+ * upcoming reservations than fit is then rejected.
+ */
+public class FlatRepositoryMappedProvider implements FlatRepository, Closeable {
+    private static final int MAGIC = 0x464C4154;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int HEADER_RECORD_COUNT = 24;
+
+    private static final int ID_BYTES = 64;
+    private static final int TEXT_BYTES = 256;
+    private static final int SLOT_ID_BYTES = 48;
+    private static final int SLOT_SIZE = 112;
+    private static final int RECORD_SEQUENCE = 0;
+    private static final int RECORD_SLOT_COUNT = 4;
+    private static final int RECORD_FLAT_ID = 8;
+    private static final int RECORD_LANDLORD_ID = RECORD_FLAT_ID + 2 + ID_BYTES;
+    private static final int RECORD_LANDLORD_FIRST_NAME = RECORD_LANDLORD_ID + 2 + ID_BYTES;
+    private static final int RECORD_LANDLORD_LAST_NAME = RECORD_LANDLORD_FIRST_NAME + 2 + ID_BYTES;
+    private static final int RECORD_DESCRIPTION = RECORD_LANDLORD_LAST_NAME + 2 + ID_BYTES;
+    private static final int RECORD_ADDRESS = RECORD_DESCRIPTION + 2 + TEXT_BYTES;
+    private static final int RECORD_SLOTS = align(RECORD_ADDRESS + 2 + TEXT_BYTES);
+    private static final int SLOT_TENANT_ID = SLOT_ID_BYTES;
+    private static final int SLOT_EPOCH_SECOND = 2 * SLOT_ID_BYTES;
+    private static final int SLOT_NANO = SLOT_EPOCH_SECOND + 8;
+    private static final int SLOT_STATUS = SLOT_NANO + 4;
+    private static final long NO_DATE_TIME = Long.MIN_VALUE;
+    private static final int MAX_CHUNK_BYTES = 1 << 30;
+    private static final int LOCK_STRIPES = 64;
+    private static final int MAX_FLATS = 1 << 28;
+
+    private static final VarHandle INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LONG_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] indexChunks;
+    private final MappedByteBuffer[] recordChunks;
+    private final int maxFlats;
+    private final int maxSlotsPerFlat;
+    private final boolean compactHistory;
+    private final int recordSize;
+    private final int indexCapacity;
+    private final int indexEntriesPerChunk;
+    private final int recordsPerChunk;
+    private final Object indexLock = new Object();
+    private final Object[] recordLocks = new Object[LOCK_STRIPES];
+
+    public FlatRepositoryMappedProvider(Path file, int maxFlats, int maxSlotsPerFlat) {
+        this(file, maxFlats, maxSlotsPerFlat, false);
+    }
+
+    public FlatRepositoryMappedProvider(Path file, int maxFlats, int maxSlotsPerFlat, boolean compactHistory) {
+        this.compactHistory = compactHistory;
+        try {
+            boolean exists = Files.exists(file) && Files.size(file) > 0;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            if (exists) {
+                if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                    throw new IllegalStateException(file + " is not a flat repository file");
+                }
+                this.maxFlats = header.getInt(8);
+                this.maxSlotsPerFlat = header.getInt(12);
+                this.indexCapacity = header.getInt(16);
+                this.recordSize = header.getInt(20);
+            } else {
+                if (maxFlats < 1 || maxFlats > MAX_FLATS || maxSlotsPerFlat < 1) {
+                    throw new IllegalArgumentException("maxFlats must be between 1 and " + MAX_FLATS
+                            + " and maxSlotsPerFlat must be positive");
+                }
+                this.maxFlats = maxFlats;
+                this.maxSlotsPerFlat = maxSlotsPerFlat;
+                this.indexCapacity = Integer.highestOneBit(Math.max(2, maxFlats * 2 - 1)) << 1;
+                this.recordSize = RECORD_SLOTS + maxSlotsPerFlat * SLOT_SIZE;
+                header.putInt(4, VERSION);
+                header.putInt(8, this.maxFlats);
+                header.putInt(12, this.maxSlotsPerFlat);
+                header.putInt(16, indexCapacity);
+                header.putInt(20, recordSize);
+                header.putInt(HEADER_RECORD_COUNT, 0);
+                header.putInt(0, MAGIC);
+            }
+            this.indexEntriesPerChunk = MAX_CHUNK_BYTES / Long.BYTES;
+            this.recordsPerChunk = Math.max(1, MAX_CHUNK_BYTES / recordSize);
+            long indexStart = HEADER_SIZE;
+            long recordStart = indexStart + (long) indexCapacity * Long.BYTES;
+            this.indexChunks = mapChunks(indexStart, indexCapacity, indexEntriesPerChunk, Long.BYTES);
+            this.recordChunks = mapChunks(recordStart, this.maxFlats, recordsPerChunk, recordSize);
+            if (exists) {
+                recover();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            recordLocks[i] = new Object();
+        }
+    }
+
+    @Override
+    public Optional<Flat> findById(String id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        int record = lookup(id);
+        return record < 0 ? Optional.empty() : Optional.of(read(record));
+    }
+
+    @Override
+    public void save(Flat flat) {
+        List<ReserveSlot> reserves = retainedSlots(flat);
+        int record = lookup(flat.getId());
+        if (record < 0) {
+            if (insert(flat, reserves)) {
+                return;
+            }
+            record = lookup(flat.getId());
+        }
+        synchronized (recordLocks[record % LOCK_STRIPES]) {
+            write(record, flat, reserves);
+        }
+    }
+
+    @Override
+    public List<Flat> findAll() {
+        int count = (int) INT_VIEW.getAcquire(header, HEADER_RECORD_COUNT);
+        List<Flat> flats = new ArrayList<>(count);
+        for (int record = 0; record < count; record++) {
+            flats.add(read(record));
+        }
+        return flats;
+    }
+
+    public int size() {
+        return (int) INT_VIEW.getAcquire(header, HEADER_RECORD_COUNT);
+    }
+
+    public void flush() {
+        header.force();
+        for (MappedByteBuffer chunk : indexChunks) {
+            chunk.force();
+        }
+        for (MappedByteBuffer chunk : recordChunks) {
+            chunk.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    /**
+     * Repairs what a crash can leave behind: records whose write never finished, and an inserted record that was
+     * indexed before the record count was advanced.
+     */
+    private void recover() {
+        int count = header.getInt(HEADER_RECORD_COUNT);
+        if (count < maxFlats) {
+            String flatId = readString(recordChunk(count), recordOffset(count) + RECORD_FLAT_ID);
+            if (flatId != null && lookup(flatId) == count) {
+                count++;
+                header.putInt(HEADER_RECORD_COUNT, count);
+            }
+        }
+        for (int record = 0; record < count; record++) {
+            MappedByteBuffer buffer = recordChunk(record);
+            int sequence = buffer.getInt(recordOffset(record) + RECORD_SEQUENCE);
+            if ((sequence & 1) != 0) {
+                buffer.putInt(recordOffset(record) + RECORD_SEQUENCE, sequence + 1);
+            }
+        }
+    }
+
+    private MappedByteBuffer[] mapChunks(long start, int entries, int entriesPerChunk, int entrySize) throws IOException {
+        int chunks = (entries + entriesPerChunk - 1) / entriesPerChunk;
+        MappedByteBuffer[] mapped = new MappedByteBuffer[chunks];
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int chunkEntries = Math.min(entriesPerChunk, entries - chunk * entriesPerChunk);
+            mapped[chunk] = channel.map(FileChannel.MapMode.READ_WRITE,
+                    start + (long) chunk * entriesPerChunk * entrySize, (long) chunkEntries * entrySize);
+        }
+        return mapped;
+    }
+
+    private int lookup(String flatId) {
+        int mask = indexCapacity - 1;
+        for (int slot = hash(flatId) & mask; ; slot = (slot + 1) & mask) {
+            long entry = (long) LONG_VIEW.getAcquire(indexChunk(slot), indexOffset(slot));
+            if (entry == 0) {
+                return -1;
+            }
+            int record = (int) (entry - 1);
+            if (flatId.equals(readString(recordChunk(record), recordOffset(record) + RECORD_FLAT_ID))) {
+                return record;
+            }
+        }
+    }
+
+    private List<ReserveSlot> retainedSlots(Flat flat) {
+        List<ReserveSlot> reserves = flat.getReserves();
+        if (reserves.size() <= maxSlotsPerFlat) {
+            return reserves;
+        }
+        if (!compactHistory) {
+            throw new IllegalStateException("Flat " + flat.getId() + " has more than " + maxSlotsPerFlat + " reservations");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<ReserveSlot> retained = new ArrayList<>(maxSlotsPerFlat);
+        for (ReserveSlot slot : reserves) {
+            boolean past = slot.getDateTime() != null && slot.getDateTime().isBefore(now);
+            if (slot.getStatus() != ReserveSlot.Status.CANCELED && !past) {
+                retained.add(slot);
+            }
+        }
+        if (retained.size() > maxSlotsPerFlat) {
+            throw new IllegalStateException("Flat " + flat.getId() + " has more than " + maxSlotsPerFlat + " upcoming reservations");
+        }
+        return retained;
+    }
+
+    private boolean insert(Flat flat, List<ReserveSlot> reserves) {
+        synchronized (indexLock) {
+            if (lookup(flat.getId()) >= 0) {
+                return false;
+            }
+            int record = (int) INT_VIEW.get(header, HEADER_RECORD_COUNT);
+            if (record >= maxFlats) {
+                throw new IllegalStateException("Flat repository is full (" + maxFlats + " flats)");
+            }
+            synchronized (recordLocks[record % LOCK_STRIPES]) {
+                write(record, flat, reserves);
+            }
+            int mask = indexCapacity - 1;
+            int slot = hash(flat.getId()) & mask;
+            while ((long) LONG_VIEW.get(indexChunk(slot), indexOffset(slot)) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            LONG_VIEW.setRelease(indexChunk(slot), indexOffset(slot), (long) record + 1);
+            INT_VIEW.setRelease(header, HEADER_RECORD_COUNT, record + 1);
+            return true;
+        }
+    }
+
+    private void write(int record, Flat flat, List<ReserveSlot> reserves) {
+        Landlord landlord = flat.getLandlord();
+        byte[] flatId = encode(flat.getId(), ID_BYTES);
+        byte[] landlordId = encode(landlord == null ? null : landlord.getId(), ID_BYTES);
+        byte[] firstName = encode(landlord == null ? null : landlord.getFirstName(), ID_BYTES);
+        byte[] lastName = encode(landlord == null ? null : landlord.getLastName(), ID_BYTES);
+        byte[] description = encode(flat.getShortDescription(), TEXT_BYTES);
+        byte[] address = encode(flat.getAddress(), TEXT_BYTES);
+        byte[][] slotIds = new byte[reserves.size()][];
+        byte[][] tenantIds = new byte[reserves.size()][];
+        for (int i = 0; i < reserves.size(); i++) {
+            slotIds[i] = encode(reserves.get(i).getId(), SLOT_ID_BYTES - 2);
+            tenantIds[i] = encode(reserves.get(i).getTenantId(), SLOT_ID_BYTES - 2);
+        }
+
+        MappedByteBuffer buffer = recordChunk(record);
+        int offset = recordOffset(record);
+        int sequence = (int) INT_VIEW.get(buffer, offset + RECORD_SEQUENCE);
+        INT_VIEW.setVolatile(buffer, offset + RECORD_SEQUENCE, sequence + 1);
+        try {
+            writeBytes(buffer, offset + RECORD_FLAT_ID, flatId);
+            writeBytes(buffer, offset + RECORD_LANDLORD_ID, landlordId);
+            writeBytes(buffer, offset + RECORD_LANDLORD_FIRST_NAME, firstName);
+            writeBytes(buffer, offset + RECORD_LANDLORD_LAST_NAME, lastName);
+            writeBytes(buffer, offset + RECORD_DESCRIPTION, description);
+            writeBytes(buffer, offset + RECORD_ADDRESS, address);
+            for (int i = 0; i < reserves.size(); i++) {
+                writeSlot(buffer, offset + RECORD_SLOTS + i * SLOT_SIZE, slotIds[i], tenantIds[i], reserves.get(i));
+            }
+            buffer.putInt(offset + RECORD_SLOT_COUNT, reserves.size());
+        } finally {
+            INT_VIEW.setRelease(buffer, offset + RECORD_SEQUENCE, sequence + 2);
+        }
+    }
+
+    private Flat read(int record) {
+        MappedByteBuffer buffer = recordChunk(record);
+        int offset = recordOffset(record);
+        while (true) {
+            int sequence = (int) INT_VIEW.getAcquire(buffer, offset + RECORD_SEQUENCE);
+            if ((sequence & 1) == 0) {
+                Flat flat = decode(buffer, offset);
+                VarHandle.acquireFence();
+                if ((int) INT_VIEW.getAcquire(buffer, offset + RECORD_SEQUENCE) == sequence) {
+                    return flat;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private Flat decode(MappedByteBuffer buffer, int offset) {
+        Flat flat = new Flat(readString(buffer, offset + RECORD_FLAT_ID),
+                readString(buffer, offset + RECORD_DESCRIPTION),
+                readString(buffer, offset + RECORD_ADDRESS));
+        String landlordId = readString(buffer, offset + RECORD_LANDLORD_ID);
+        if (landlordId != null) {
+            flat.setLandlord(new Landlord(landlordId,
+                    readString(buffer, offset + RECORD_LANDLORD_FIRST_NAME),
+                    readString(buffer, offset + RECORD_LANDLORD_LAST_NAME)));
+        }
+        int slots = Math.min(buffer.getInt(offset + RECORD_SLOT_COUNT), maxSlotsPerFlat);
+        for (int i = 0; i < slots; i++) {
+            flat.getReserves().add(readSlot(buffer, offset + RECORD_SLOTS + i * SLOT_SIZE));
+        }
+        return flat;
+    }
+
+    private static void writeSlot(MappedByteBuffer buffer, int offset, byte[] id, byte[] tenantId, ReserveSlot slot) {
+        writeBytes(buffer, offset, id);
+        writeBytes(buffer, offset + SLOT_TENANT_ID, tenantId);
+        LocalDateTime dateTime = slot.getDateTime();
+        buffer.putLong(offset + SLOT_EPOCH_SECOND, dateTime == null ? NO_DATE_TIME : dateTime.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(offset + SLOT_NANO, dateTime == null ? 0 : dateTime.getNano());
+        buffer.put(offset + SLOT_STATUS, slot.getStatus() == null ? -1 : (byte) slot.getStatus().ordinal());
+    }
+
+    private static ReserveSlot readSlot(MappedByteBuffer buffer, int offset) {
+        ReserveSlot slot = new ReserveSlot();
+        slot.setId(readString(buffer, offset));
+        slot.setTenantId(readString(buffer, offset + SLOT_TENANT_ID));
+        long epochSecond = buffer.getLong(offset + SLOT_EPOCH_SECOND);
+        if (epochSecond != NO_DATE_TIME) {
+            slot.setDateTime(LocalDateTime.ofEpochSecond(epochSecond, buffer.getInt(offset + SLOT_NANO), ZoneOffset.UTC));
+        }
+        byte status = buffer.get(offset + SLOT_STATUS);
+        slot.setStatus(status < 0 ? null : ReserveSlot.Status.values()[status]);
+        return slot;
+    }
+
+    private static byte[] encode(String value, int maxBytes) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > maxBytes) {
+            throw new IllegalArgumentException("'" + value + "' is longer than " + maxBytes + " bytes");
+        }
+        return bytes;
+    }
+
+    private static void writeBytes(MappedByteBuffer buffer, int offset, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putShort(offset, (short) -1);
+            return;
+        }
+        buffer.putShort(offset, (short) bytes.length);
+        buffer.put(offset + 2, bytes);
+    }
+
+    private static String readString(MappedByteBuffer buffer, int offset) {
+        short length = buffer.getShort(offset);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private MappedByteBuffer indexChunk(int slot) {
+        return indexChunks[slot / indexEntriesPerChunk];
+    }
+
+    private int indexOffset(int slot) {
+        return (slot % indexEntriesPerChunk) * Long.BYTES;
+    }
+
+    private MappedByteBuffer recordChunk(int record) {
+        return recordChunks[record / recordsPerChunk];
+    }
+
+    private int recordOffset(int record) {
+        return (record % recordsPerChunk) * recordSize;
+    }
+
+    private static int hash(String flatId) {
+        int h = flatId.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int align(int offset) {
+        return (offset + 7) & ~7;
+    }
+}
@@ -0,0 +1,75 @@
+package net.imanbayli.flat.booking.repository.provider;
+
+import net.imanbayli.flat.booking.jfr.Outcomes;
+import net.imanbayli.flat.booking.jfr.RepositoryEvent;
+import net.imanbayli.flat.booking.model.Flat;
+import net.imanbayli.flat.booking.repository.FlatRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public class FlatRepositoryRecordingProvider implements FlatRepository {
+    private final FlatRepository delegate;
+
+    public FlatRepositoryRecordingProvider(FlatRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Optional<Flat> findById(String id) {
+        RepositoryEvent event = new RepositoryEvent();
+        event.begin();
+        try {
+            Optional<Flat> flat = delegate.findById(id);
+            commit(event, "findById", id, flat.orElse(null), flat.isPresent() ? Outcomes.SUCCESS : "NOT_FOUND");
+            return flat;
+        } catch (RuntimeException e) {
+            commit(event, "findById", id, null, Outcomes.of(e));
+            throw e;
+        }
+    }
+
+    @Override
+    public void save(Flat flat) {
+        RepositoryEvent event = new RepositoryEvent();
+        event.begin();
+        try {
+            delegate.save(flat);
+            commit(event, "save", flat.getId(), flat, Outcomes.SUCCESS);
+        } catch (RuntimeException e) {
+            commit(event, "save", flat.getId(), flat, Outcomes.of(e));
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Flat> findAll() {
+        RepositoryEvent event = new RepositoryEvent();
+        event.begin();
+        try {
+            List<Flat> flats = delegate.findAll();
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = "findAll";
+                event.flatCount = flats.size();
+                event.outcome = Outcomes.SUCCESS;
+                event.commit();
+            }
+            return flats;
+        } catch (RuntimeException e) {
+            commit(event, "findAll", null, null, Outcomes.of(e));
+            throw e;
+        }
+    }
+
+    private static void commit(RepositoryEvent event, String operation, String flatId, Flat flat, String outcome) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.flatId = flatId;
+            event.reservationCount = flat == null ? 0 : flat.getReserves().size();
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+}
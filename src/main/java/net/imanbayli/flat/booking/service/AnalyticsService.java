@@ -0,0 +1,7 @@
+package net.imanbayli.flat.booking.service;
+
+import net.imanbayli.flat.booking.model.OccupancyReport;
+
+public interface AnalyticsService {
+    OccupancyReport occupancyReport();
+}
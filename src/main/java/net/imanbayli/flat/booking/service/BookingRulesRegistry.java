@@ -0,0 +1,9 @@
+package net.imanbayli.flat.booking.service;
+
+import net.imanbayli.flat.booking.model.BookingRules;
+
+public interface BookingRulesRegistry {
+    void register(String flatId, BookingRules rules);
+    BookingRules rulesFor(String flatId);
+    SlotMask maskFor(String flatId);
+}
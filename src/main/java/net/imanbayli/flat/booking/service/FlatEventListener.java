@@ -0,0 +1,7 @@
+package net.imanbayli.flat.booking.service;
+
+import net.imanbayli.flat.booking.model.FlatEvent;
+
+public interface FlatEventListener {
+    void onEvent(FlatEvent event);
+}
@@ -1,16 +1,29 @@
 package net.imanbayli.flat.booking.service;
 
+import net.imanbayli.flat.booking.model.BookingRules;
+import net.imanbayli.flat.booking.model.DecisionRequest;
+import net.imanbayli.flat.booking.model.DecisionResult;
+import net.imanbayli.flat.booking.model.Flat;
+import net.imanbayli.flat.booking.model.ReservationOutcome;
 import net.imanbayli.flat.booking.model.ReservationResponse;
 import net.imanbayli.flat.booking.model.ReserveSlot;
+import net.imanbayli.flat.booking.model.WaitlistResponse;
 
-import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface FlatService {
     ReservationResponse reserve(String flatId, ReserveSlot requestSlot);
+    ReservationOutcome tryReserve(String flatId, ReserveSlot requestSlot);
+    WaitlistResponse joinWaitlist(String flatId, ReserveSlot requestSlot);
+    ReservationResponse leaveWaitlist(String flatId, String waitlistId);
     ReservationResponse approve(String flatId, String reservationId);
     ReservationResponse reject(String flatId, String reservationId);
     ReservationResponse cancel(String flatId, String reservationId);
+    List<DecisionResult> decide(List<DecisionRequest> decisions);
     List<String> viewOccupiedDates(String flatId);
+    List<String> viewFreeSlots(String flatId);
+    void updateBookingRules(String flatId, BookingRules rules);
+    Optional<Flat> snapshot(String flatId);
 
 }
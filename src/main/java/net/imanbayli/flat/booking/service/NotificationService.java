@@ -1,5 +1,19 @@
 package net.imanbayli.flat.booking.service;
 
+import net.imanbayli.flat.booking.model.Notification;
+
+import java.util.List;
+
 public interface NotificationService {
     void send(String userId, String message);
+
+    default void send(String userId, String flatId, String message) {
+        send(userId, message);
+    }
+
+    default void sendAll(List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            send(notification.getUserId(), notification.getFlatId(), notification.getMessage());
+        }
+    }
 }
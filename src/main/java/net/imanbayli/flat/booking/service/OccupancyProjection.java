@@ -0,0 +1,11 @@
+package net.imanbayli.flat.booking.service;
+
+import net.imanbayli.flat.booking.model.FlatOccupancy;
+
+import java.util.Optional;
+
+public interface OccupancyProjection extends FlatEventListener {
+    Optional<FlatOccupancy> find(String flatId);
+    long getLagMillis();
+    long getPendingEvents();
+}
@@ -0,0 +1,147 @@
+package net.imanbayli.flat.booking.service;
+
+import net.imanbayli.flat.booking.model.BookingRules;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A flat's {@link BookingRules} compiled into one bit per slot, starting at midnight of {@code origin}. Hours, slot
+ * length and closed days are folded into the bits, so a valid request costs a bit lookup plus a window comparison.
+ * Rejected requests are diagnosed step by step to produce the message.
+ */
+public class SlotMask {
+    private static final int SECONDS_PER_HOUR = 3600;
+    private static final int SECONDS_PER_DAY = 24 * SECONDS_PER_HOUR;
+
+    private final LocalDate origin;
+    private final long originEpochMinute;
+    private final int slotMinutes;
+    private final int slotsPerDay;
+    private final long minSecondsAhead;
+    private final long maxSecondsAhead;
+    private final BitSet validSlots;
+    private final BookingRules rules;
+    private final String maxDaysMessage;
+    private final String minHoursMessage;
+    private final String slotMessage;
+    private final String hoursMessage;
+
+    private SlotMask(BookingRules rules, LocalDate origin, BitSet validSlots) {
+        this.rules = rules;
+        this.origin = origin;
+        this.originEpochMinute = origin.atStartOfDay().toEpochSecond(ZoneOffset.UTC) / 60;
+        this.slotMinutes = rules.getSlotMinutes();
+        this.slotsPerDay = slotsPerDay(slotMinutes);
+        this.minSecondsAhead = (long) rules.getMinHoursBeforeBooking() * SECONDS_PER_HOUR;
+        this.maxSecondsAhead = (long) rules.getMaxDaysFutureBooking() * SECONDS_PER_DAY;
+        this.validSlots = validSlots;
+        this.maxDaysMessage = "You can only book for the next " + rules.getMaxDaysFutureBooking() + " days";
+        this.minHoursMessage = "You cannot book appointment for time less than " + rules.getMinHoursBeforeBooking() + " hours";
+        this.slotMessage = "You can only book a timeslot of " + slotMinutes + " minutes";
+        this.hoursMessage = String.format("You can only book a timeslot between %02d:00 and %02d:00",
+                rules.getStartHour(), rules.getEndHour() + 1);
+    }
+
+    public static SlotMask compile(BookingRules rules, LocalDate origin) {
+        int slotsPerDay = slotsPerDay(rules.getSlotMinutes());
+        int days = rules.getMaxDaysFutureBooking() + 2;
+        BitSet validSlots = new BitSet(slotsPerDay * days);
+        for (int day = 0; day < days; day++) {
+            LocalDate date = origin.plusDays(day);
+            if (rules.getClosedDays().contains(date.getDayOfWeek()) || rules.getBlackoutDates().contains(date)) {
+                continue;
+            }
+            for (int slot = 0; slot < slotsPerDay; slot++) {
+                int hour = slot * rules.getSlotMinutes() / 60;
+                if (hour >= rules.getStartHour() && hour <= rules.getEndHour()) {
+                    validSlots.set(day * slotsPerDay + slot);
+                }
+            }
+        }
+        return new SlotMask(rules, origin, validSlots);
+    }
+
+    public LocalDate getOrigin() {
+        return origin;
+    }
+
+    public String rejectionFor(LocalDateTime dateTime, LocalDateTime now) {
+        if (dateTime == null) {
+            return "Datetime cannot be null";
+        }
+        long secondsAhead = dateTime.toEpochSecond(ZoneOffset.UTC) - now.toEpochSecond(ZoneOffset.UTC);
+        if (dateTime.getNano() < now.getNano()) {
+            secondsAhead--;
+        }
+        if (secondsAhead >= minSecondsAhead && secondsAhead < maxSecondsAhead && isValidSlot(dateTime)) {
+            return null;
+        }
+        return diagnose(dateTime, now, secondsAhead);
+    }
+
+    public List<LocalDateTime> bookableSlots(LocalDateTime now) {
+        List<LocalDateTime> slots = new ArrayList<>();
+        LocalDateTime from = now.plusSeconds(minSecondsAhead);
+        LocalDateTime to = now.plusSeconds(maxSecondsAhead);
+        int first = from.toLocalDate().isBefore(origin) ? 0 : indexOf(from);
+        for (int index = validSlots.nextSetBit(first); index >= 0;
+             index = validSlots.nextSetBit(index + 1)) {
+            LocalDateTime slot = slotStart(index);
+            if (!slot.isBefore(to)) {
+                break;
+            }
+            if (!slot.isBefore(from)) {
+                slots.add(slot);
+            }
+        }
+        return slots;
+    }
+
+    private boolean isValidSlot(LocalDateTime dateTime) {
+        if (dateTime.toEpochSecond(ZoneOffset.UTC) / 60 < originEpochMinute || minuteOfDay(dateTime) % slotMinutes != 0) {
+            return false;
+        }
+        return validSlots.get(indexOf(dateTime));
+    }
+
+    private int indexOf(LocalDateTime dateTime) {
+        long day = (dateTime.toEpochSecond(ZoneOffset.UTC) / 60 - originEpochMinute) / (24 * 60);
+        return (int) (day * slotsPerDay + minuteOfDay(dateTime) / slotMinutes);
+    }
+
+    private LocalDateTime slotStart(int index) {
+        return origin.plusDays(index / slotsPerDay).atStartOfDay().plusMinutes((long) (index % slotsPerDay) * slotMinutes);
+    }
+
+    private String diagnose(LocalDateTime dateTime, LocalDateTime now, long secondsAhead) {
+        if (dateTime.isBefore(now)) {
+            return "You cannot book time in past";
+        }
+        if (secondsAhead >= maxSecondsAhead) {
+            return maxDaysMessage;
+        }
+        if (secondsAhead < minSecondsAhead) {
+            return minHoursMessage;
+        }
+        if (minuteOfDay(dateTime) % slotMinutes != 0) {
+            return slotMessage;
+        }
+        if (dateTime.getHour() < rules.getStartHour() || dateTime.getHour() > rules.getEndHour()) {
+            return hoursMessage;
+        }
+        return "You cannot book a timeslot on this day";
+    }
+
+    private static int slotsPerDay(int slotMinutes) {
+        return (24 * 60 + slotMinutes - 1) / slotMinutes;
+    }
+
+    private static int minuteOfDay(LocalDateTime dateTime) {
+        return dateTime.getHour() * 60 + dateTime.getMinute();
+    }
+}
@@ -0,0 +1,36 @@
+package net.imanbayli.flat.booking.service;
+
+import net.imanbayli.flat.booking.model.Tenant;
+
+import java.util.Optional;
+
+/**
+ * The tenant on whose behalf the current request thread is running. {@code Application} binds it from the bearer
+ * token before a tenant route runs and clears it once the response is written.
+ */
+public final class TenantContext {
+    private static final ThreadLocal<Tenant> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static void set(Tenant tenant) {
+        CURRENT.set(tenant);
+    }
+
+    public static Optional<Tenant> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    public static String currentTenantId() {
+        Tenant tenant = CURRENT.get();
+        if (tenant == null) {
+            throw new IllegalStateException("No tenant is bound to this request");
+        }
+        return tenant.getId();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,9 @@
+package net.imanbayli.flat.booking.service;
+
+import net.imanbayli.flat.booking.model.Tenant;
+
+import java.util.Optional;
+
+public interface TokenVerifier {
+    Optional<Tenant> verify(String token);
+}
@@ -0,0 +1,18 @@
+package net.imanbayli.flat.booking.service;
+
+import net.imanbayli.flat.booking.model.WaitlistEntry;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Per-slot FIFO of tenants waiting for an occupied timeslot. Callers serialise access per flat.
+ */
+public interface WaitlistRegistry {
+    int add(String flatId, WaitlistEntry entry);
+    Optional<WaitlistEntry> poll(String flatId, LocalDateTime dateTime);
+    List<WaitlistEntry> clear(String flatId, LocalDateTime dateTime);
+    Optional<WaitlistEntry> withdraw(String flatId, String entryId, String tenantId);
+    long getWaitingCount();
+}
@@ -0,0 +1,212 @@
+package net.imanbayli.flat.booking.service.provider;
+
+import net.imanbayli.flat.booking.model.Flat;
+import net.imanbayli.flat.booking.model.LandlordRatios;
+import net.imanbayli.flat.booking.model.OccupancyReport;
+import net.imanbayli.flat.booking.model.ReserveSlot;
+import net.imanbayli.flat.booking.repository.FlatRepository;
+import net.imanbayli.flat.booking.service.AnalyticsService;
+import net.imanbayli.flat.booking.service.BookingRulesRegistry;
+import net.imanbayli.flat.booking.service.FlatService;
+import net.imanbayli.flat.booking.service.SlotMask;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Aggregates every reservation the repository holds, past and upcoming. The flat list is split into partitions that
+ * are counted in parallel and merged pairwise. Each flat is copied under its own lock via
+ * {@link FlatService#snapshot}, so a flat's figures are always self-consistent and bookings only wait for that copy.
+ * Occupancy covers the slots currently open for booking under each flat's rules. Reservations without a date or a
+ * status are left out of every figure and only counted as incomplete.
+ */
+public class AnalyticsServiceForkJoinProvider implements AnalyticsService {
+    private static final int PARTITION_SIZE = 64;
+    private static final int PEAK_HOURS = 3;
+    private static final int STATUSES = ReserveSlot.Status.values().length;
+
+    private final FlatRepository flatRepository;
+    private final FlatService flatService;
+    private final BookingRulesRegistry bookingRulesRegistry;
+    private final ForkJoinPool pool;
+
+    public AnalyticsServiceForkJoinProvider(FlatRepository flatRepository, FlatService flatService,
+                                            BookingRulesRegistry bookingRulesRegistry) {
+        this(flatRepository, flatService, bookingRulesRegistry, ForkJoinPool.commonPool());
+    }
+
+    public AnalyticsServiceForkJoinProvider(FlatRepository flatRepository, FlatService flatService,
+                                            BookingRulesRegistry bookingRulesRegistry, ForkJoinPool pool) {
+        this.flatRepository = flatRepository;
+        this.flatService = flatService;
+        this.bookingRulesRegistry = bookingRulesRegistry;
+        this.pool = pool;
+    }
+
+    @Override
+    public OccupancyReport occupancyReport() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Flat> flats = flatRepository.findAll();
+        Map<SlotMask, Set<LocalDateTime>> openSlots = new ConcurrentHashMap<>();
+        Totals totals = pool.invoke(new PartitionTask(flats, 0, flats.size(), now, openSlots));
+        return totals.toReport(now);
+    }
+
+    private Set<LocalDateTime> openSlots(String flatId, LocalDateTime now, Map<SlotMask, Set<LocalDateTime>> cache) {
+        return cache.computeIfAbsent(bookingRulesRegistry.maskFor(flatId), mask -> new HashSet<>(mask.bookableSlots(now)));
+    }
+
+    static String cityOf(String address) {
+        if (address == null || address.isBlank()) {
+            return "unknown";
+        }
+        int comma = address.lastIndexOf(',');
+        return address.substring(comma + 1).trim();
+    }
+
+    private class PartitionTask extends RecursiveTask<Totals> {
+        private final List<Flat> flats;
+        private final int from;
+        private final int to;
+        private final LocalDateTime now;
+        private final Map<SlotMask, Set<LocalDateTime>> openSlots;
+
+        PartitionTask(List<Flat> flats, int from, int to, LocalDateTime now, Map<SlotMask, Set<LocalDateTime>> openSlots) {
+            this.flats = flats;
+            this.from = from;
+            this.to = to;
+            this.now = now;
+            this.openSlots = openSlots;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (to - from <= PARTITION_SIZE) {
+                Totals totals = new Totals();
+                for (int i = from; i < to; i++) {
+                    Optional<Flat> snapshot = flatService.snapshot(flats.get(i).getId());
+                    snapshot.ifPresent(flat -> totals.add(flat, openSlots(flat.getId(), now, openSlots)));
+                }
+                return totals;
+            }
+            int middle = (from + to) >>> 1;
+            PartitionTask left = new PartitionTask(flats, from, middle, now, openSlots);
+            left.fork();
+            Totals right = new PartitionTask(flats, middle, to, now, openSlots).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    private static class Totals {
+        private final long[] reservationsByHour = new long[24];
+        private final Map<String, long[]> occupancyByFlat = new HashMap<>();
+        private final Map<String, long[]> occupancyByCity = new HashMap<>();
+        private final Map<String, long[]> statusesByLandlord = new HashMap<>();
+        private int flats;
+        private long reservations;
+        private long incompleteReservations;
+
+        void add(Flat flat, Set<LocalDateTime> openSlots) {
+            long occupied = 0;
+            long[] statuses = flat.getLandlord() == null ? new long[STATUSES]
+                    : statusesByLandlord.computeIfAbsent(flat.getLandlord().getId(), id -> new long[STATUSES]);
+            for (ReserveSlot slot : flat.getReserves()) {
+                if (slot.getDateTime() == null || slot.getStatus() == null) {
+                    incompleteReservations++;
+                    continue;
+                }
+                reservations++;
+                reservationsByHour[slot.getDateTime().getHour()]++;
+                statuses[slot.getStatus().ordinal()]++;
+                if ((slot.getStatus() == ReserveSlot.Status.PENDING || slot.getStatus() == ReserveSlot.Status.APPROVED)
+                        && openSlots.contains(slot.getDateTime())) {
+                    occupied++;
+                }
+            }
+            occupancyByFlat.put(flat.getId(), new long[]{occupied, openSlots.size()});
+            long[] city = occupancyByCity.computeIfAbsent(cityOf(flat.getAddress()), c -> new long[2]);
+            city[0] += occupied;
+            city[1] += openSlots.size();
+            flats++;
+        }
+
+        Totals merge(Totals other) {
+            for (int hour = 0; hour < reservationsByHour.length; hour++) {
+                reservationsByHour[hour] += other.reservationsByHour[hour];
+            }
+            occupancyByFlat.putAll(other.occupancyByFlat);
+            mergeCounts(occupancyByCity, other.occupancyByCity);
+            mergeCounts(statusesByLandlord, other.statusesByLandlord);
+            flats += other.flats;
+            reservations += other.reservations;
+            incompleteReservations += other.incompleteReservations;
+            return this;
+        }
+
+        private static void mergeCounts(Map<String, long[]> into, Map<String, long[]> from) {
+            from.forEach((key, counts) -> into.merge(key, counts, (a, b) -> {
+                for (int i = 0; i < a.length; i++) {
+                    a[i] += b[i];
+                }
+                return a;
+            }));
+        }
+
+        OccupancyReport toReport(LocalDateTime now) {
+            OccupancyReport report = new OccupancyReport();
+            report.setGeneratedAt(now.format(DateTimeFormatter.ISO_DATE_TIME));
+            report.setFlats(flats);
+            report.setReservations(reservations);
+            report.setIncompleteReservations(incompleteReservations);
+            report.setOccupancyByFlat(rates(occupancyByFlat));
+            report.setOccupancyByCity(rates(occupancyByCity));
+            Map<String, LandlordRatios> landlords = new TreeMap<>();
+            statusesByLandlord.forEach((landlordId, statuses) -> {
+                long total = 0;
+                for (long count : statuses) {
+                    total += count;
+                }
+                landlords.put(landlordId, new LandlordRatios(total,
+                        ratio(statuses[ReserveSlot.Status.APPROVED.ordinal()], total),
+                        ratio(statuses[ReserveSlot.Status.REJECTED.ordinal()], total),
+                        ratio(statuses[ReserveSlot.Status.CANCELED.ordinal()], total)));
+            });
+            report.setLandlords(landlords);
+            report.setReservationsByHour(reservationsByHour);
+            report.setPeakHours(peakHours());
+            return report;
+        }
+
+        private List<Integer> peakHours() {
+            List<Integer> hours = new ArrayList<>();
+            for (int hour = 0; hour < reservationsByHour.length; hour++) {
+                if (reservationsByHour[hour] > 0) {
+                    hours.add(hour);
+                }
+            }
+            hours.sort((a, b) -> Long.compare(reservationsByHour[b], reservationsByHour[a]));
+            return new ArrayList<>(hours.subList(0, Math.min(PEAK_HOURS, hours.size())));
+        }
+
+        private static Map<String, Double> rates(Map<String, long[]> counts) {
+            Map<String, Double> rates = new TreeMap<>();
+            counts.forEach((key, count) -> rates.put(key, ratio(count[0], count[1])));
+            return rates;
+        }
+
+        private static double ratio(long part, long total) {
+            return total == 0 ? 0 : (double) part / total;
+        }
+    }
+}
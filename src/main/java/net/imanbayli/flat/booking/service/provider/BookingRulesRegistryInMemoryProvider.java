@@ -0,0 +1,81 @@
+package net.imanbayli.flat.booking.service.provider;
+
+import net.imanbayli.flat.booking.model.BookingRules;
+import net.imanbayli.flat.booking.service.BookingRulesRegistry;
+import net.imanbayli.flat.booking.service.SlotMask;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class BookingRulesRegistryInMemoryProvider implements BookingRulesRegistry {
+    private final BookingRules defaultRules;
+    private final Clock clock;
+    private final Map<String, BookingRules> rules = new ConcurrentHashMap<>();
+    private final Map<String, CompiledMask> masks = new ConcurrentHashMap<>();
+    private volatile CompiledMask defaultMask;
+
+    public BookingRulesRegistryInMemoryProvider() {
+        this(BookingRules.defaults(), Clock.systemDefaultZone());
+    }
+
+    public BookingRulesRegistryInMemoryProvider(BookingRules defaultRules, Clock clock) {
+        defaultRules.validate();
+        this.defaultRules = defaultRules;
+        this.clock = clock;
+    }
+
+    @Override
+    public void register(String flatId, BookingRules flatRules) {
+        flatRules.validate();
+        rules.put(flatId, flatRules);
+    }
+
+    @Override
+    public BookingRules rulesFor(String flatId) {
+        BookingRules flatRules = flatId == null ? null : rules.get(flatId);
+        return flatRules != null ? flatRules : defaultRules;
+    }
+
+    @Override
+    public SlotMask maskFor(String flatId) {
+        BookingRules flatRules = flatId == null ? null : rules.get(flatId);
+        if (flatRules == null) {
+            CompiledMask compiled = defaultMask;
+            if (!isCurrent(compiled, defaultRules)) {
+                compiled = compile(defaultRules);
+                defaultMask = compiled;
+            }
+            return compiled.mask;
+        }
+        CompiledMask compiled = masks.get(flatId);
+        if (!isCurrent(compiled, flatRules)) {
+            compiled = compile(flatRules);
+            masks.put(flatId, compiled);
+        }
+        return compiled.mask;
+    }
+
+    private boolean isCurrent(CompiledMask compiled, BookingRules flatRules) {
+        return compiled != null && compiled.rules == flatRules && clock.millis() < compiled.expiresAtMillis;
+    }
+
+    private CompiledMask compile(BookingRules flatRules) {
+        LocalDate today = LocalDate.now(clock);
+        long expiresAtMillis = today.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        return new CompiledMask(flatRules, SlotMask.compile(flatRules, today), expiresAtMillis);
+    }
+
+    private static class CompiledMask {
+        private final BookingRules rules;
+        private final SlotMask mask;
+        private final long expiresAtMillis;
+
+        CompiledMask(BookingRules rules, SlotMask mask, long expiresAtMillis) {
+            this.rules = rules;
+            this.mask = mask;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -3,163 +3,521 @@ package net.imanbayli.flat.booking.service.provider;
 import net.imanbayli.flat.booking.exception.FlatNotFoundException;
 import net.imanbayli.flat.booking.exception.IllegalTimeslotException;
 import net.imanbayli.flat.booking.exception.ReservationNotFoundException;
+import net.imanbayli.flat.booking.model.BookingRules;
+import net.imanbayli.flat.booking.model.DecisionRequest;
+import net.imanbayli.flat.booking.model.DecisionResult;
 import net.imanbayli.flat.booking.model.Flat;
+import net.imanbayli.flat.booking.model.FlatEvent;
+import net.imanbayli.flat.booking.model.FlatOccupancy;
+import net.imanbayli.flat.booking.model.Notification;
+import net.imanbayli.flat.booking.model.ReservationOutcome;
 import net.imanbayli.flat.booking.model.ReservationResponse;
 import net.imanbayli.flat.booking.model.ReserveSlot;
+import net.imanbayli.flat.booking.model.WaitlistEntry;
+import net.imanbayli.flat.booking.model.WaitlistResponse;
 import net.imanbayli.flat.booking.repository.FlatRepository;
+import net.imanbayli.flat.booking.service.BookingRulesRegistry;
+import net.imanbayli.flat.booking.service.FlatEventListener;
 import net.imanbayli.flat.booking.service.FlatService;
 import net.imanbayli.flat.booking.service.NotificationService;
+import net.imanbayli.flat.booking.service.OccupancyProjection;
+import net.imanbayli.flat.booking.service.TenantContext;
+import net.imanbayli.flat.booking.service.WaitlistRegistry;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ValueRange;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 public class FlatServiceDefaultProvider implements FlatService {
-    private static final int STAR_VIEW_HOUR = 10;
-    private static final int END_VIEW_HOUR = 19;
-    private static final int VIEW_SLOT = 20;
-    private static final int MIN_HOURS_BEFORE_BOOKING = 24;
-    private static final int MAX_DAY_FUTURE_BOOKING = 7;
+    private static final int LOCK_STRIPES = 64;
 
     private final FlatRepository flatRepository;
     private final NotificationService notificationService;
+    private final OccupancyProjection occupancyProjection;
+    private final BookingRulesRegistry bookingRulesRegistry;
+    private final WaitlistRegistry waitlistRegistry;
+    private final List<FlatEventListener> eventListeners = new CopyOnWriteArrayList<>();
+    private final Object[] flatLocks = new Object[LOCK_STRIPES];
 
     public FlatServiceDefaultProvider(FlatRepository flatRepository,
                                       NotificationService notificationService) {
+        this(flatRepository, notificationService, null);
+    }
+
+    public FlatServiceDefaultProvider(FlatRepository flatRepository,
+                                      NotificationService notificationService,
+                                      OccupancyProjection occupancyProjection) {
+        this(flatRepository, notificationService, occupancyProjection, new BookingRulesRegistryInMemoryProvider());
+    }
+
+    public FlatServiceDefaultProvider(FlatRepository flatRepository,
+                                      NotificationService notificationService,
+                                      OccupancyProjection occupancyProjection,
+                                      BookingRulesRegistry bookingRulesRegistry) {
+        this(flatRepository, notificationService, occupancyProjection, bookingRulesRegistry,
+                new WaitlistRegistryInMemoryProvider());
+    }
+
+    public FlatServiceDefaultProvider(FlatRepository flatRepository,
+                                      NotificationService notificationService,
+                                      OccupancyProjection occupancyProjection,
+                                      BookingRulesRegistry bookingRulesRegistry,
+                                      WaitlistRegistry waitlistRegistry) {
        this.flatRepository = flatRepository;
        this.notificationService = notificationService;
+       this.occupancyProjection = occupancyProjection;
+       this.bookingRulesRegistry = bookingRulesRegistry;
+       this.waitlistRegistry = waitlistRegistry;
+       for (int i = 0; i < LOCK_STRIPES; i++) {
+           flatLocks[i] = new Object();
+       }
+       if (occupancyProjection != null) {
+           addEventListener(occupancyProjection);
+       }
+    }
+
+    public void addEventListener(FlatEventListener listener) {
+        eventListeners.add(listener);
     }
 
     public ReservationResponse reserve(String flatId, ReserveSlot requestSlot){
-        validateSlotDatetime(requestSlot.getDateTime());
-        Flat flat = flatRepository.findById(flatId)
-                .orElseThrow(() -> new FlatNotFoundException(flatId + " not found"));
-        ReserveSlot reserveSlot = fillValuesForPendingSlot(requestSlot);
-        Optional<ReserveSlot> existSlot = flat.getReserves().stream()
-                .filter(r->r.getDateTime().equals(reserveSlot.getDateTime()))
-                .findAny();
-        existSlot.ifPresent(slot -> validateStatus(slot.getStatus()));
-        flat.getReserves().add(reserveSlot);
-        flatRepository.save(flat);
-        notificationService.send(flat.getLandlord().getId(), "the reservation for your flat is pending, please approve or reject it");
-        return new ReservationResponse(reserveSlot.getId());
+        return tryReserve(flatId, requestSlot).orElseThrow();
+    }
+
+    @Override
+    public ReservationOutcome tryReserve(String flatId, ReserveSlot requestSlot) {
+        String rejection = bookingRulesRegistry.maskFor(flatId).rejectionFor(requestSlot.getDateTime(), LocalDateTime.now());
+        if (rejection != null) {
+            return ReservationOutcome.rejected(ReservationOutcome.Rejection.ILLEGAL_TIMESLOT, rejection);
+        }
+        Flat flat;
+        ReserveSlot reserveSlot;
+        synchronized (lockFor(flatId)) {
+            Optional<Flat> found = flatRepository.findById(flatId);
+            if (found.isEmpty()) {
+                return ReservationOutcome.rejected(ReservationOutcome.Rejection.FLAT_NOT_FOUND, flatId + " not found");
+            }
+            flat = found.get();
+            LocalDateTime dateTime = requestSlot.getDateTime().withSecond(0).withNano(0);
+            for (ReserveSlot slot : flat.getReserves()) {
+                rejection = slot.getDateTime().equals(dateTime) ? rejectionForStatus(slot.getStatus()) : null;
+                if (rejection != null) {
+                    return ReservationOutcome.rejected(ReservationOutcome.Rejection.ILLEGAL_TIMESLOT, rejection);
+                }
+            }
+            reserveSlot = fillValuesForPendingSlot(requestSlot);
+            flat.getReserves().add(reserveSlot);
+            flatRepository.save(flat);
+            publish(flatId, reserveSlot);
+        }
+        notificationService.send(flat.getLandlord().getId(), flatId, "the reservation for your flat is pending, please approve or reject it");
+        return ReservationOutcome.accepted(new ReservationResponse(reserveSlot.getId()));
+    }
+
+    @Override
+    public WaitlistResponse joinWaitlist(String flatId, ReserveSlot requestSlot) {
+        validateSlotDatetime(flatId, requestSlot.getDateTime());
+        Flat flat;
+        ReserveSlot reserveSlot;
+        synchronized (lockFor(flatId)) {
+            flat = flatRepository.findById(flatId)
+                    .orElseThrow(() -> new FlatNotFoundException(flatId + " not found"));
+            reserveSlot = fillValuesForPendingSlot(requestSlot);
+            List<ReserveSlot> existing = slotsAt(flat, reserveSlot.getDateTime());
+            if (existing.stream().anyMatch(r -> r.getStatus() == ReserveSlot.Status.REJECTED)) {
+                validateStatus(ReserveSlot.Status.REJECTED);
+            }
+            if (existing.stream().anyMatch(this::isOccupying)) {
+                WaitlistEntry entry = new WaitlistEntry(reserveSlot.getId(), reserveSlot.getTenantId(), reserveSlot.getDateTime());
+                int position = waitlistRegistry.add(flatId, entry);
+                publishWaitlist(flatId, FlatEvent.WaitlistChange.JOINED, entry);
+                return new WaitlistResponse(reserveSlot.getId(), position);
+            }
+            flat.getReserves().add(reserveSlot);
+            flatRepository.save(flat);
+            publish(flatId, reserveSlot);
+        }
+        notificationService.send(flat.getLandlord().getId(), flatId, "the reservation for your flat is pending, please approve or reject it");
+        return new WaitlistResponse(reserveSlot.getId(), 0);
     }
 
     @Override
     public ReservationResponse approve(String flatId, String reservationId) {
-        Flat flat = flatRepository.findById(flatId)
-                .orElseThrow(() -> new FlatNotFoundException(flatId + " not found"));
+        ReserveSlot slot;
+        synchronized (lockFor(flatId)) {
+            Flat flat = flatRepository.findById(flatId)
+                    .orElseThrow(() -> new FlatNotFoundException(flatId + " not found"));
 
-        ReserveSlot slot = flat.getReserves().stream()
-                .filter(r->r.getId().equals(reservationId))
-                .findAny()
-                .orElseThrow(() -> new ReservationNotFoundException(reservationId+ " not found"));
+            slot = flat.getReserves().stream()
+                    .filter(r->r.getId().equals(reservationId))
+                    .findAny()
+                    .orElseThrow(() -> new ReservationNotFoundException(reservationId+ " not found"));
 
-        if(slot.getStatus() == ReserveSlot.Status.CANCELED) {
-            throw new ReservationNotFoundException("You cannot approve this reservation, it has already been cancelled by tenant");
-        }
+            if(slot.getStatus() == ReserveSlot.Status.CANCELED) {
+                throw new ReservationNotFoundException("You cannot approve this reservation, it has already been cancelled by tenant");
+            }
 
-        slot.setStatus(ReserveSlot.Status.APPROVED);
-        flatRepository.save(flat);
-        notificationService.send(slot.getTenantId(), "Your reservation has been approved");
+            slot.setStatus(ReserveSlot.Status.APPROVED);
+            flatRepository.save(flat);
+            publish(flatId, slot);
+        }
+        notificationService.send(slot.getTenantId(), flatId, "Your reservation has been approved");
         return new ReservationResponse(slot.getId());
     }
 
     @Override
     public ReservationResponse reject(String flatId, String reservationId) {
-        Flat flat = flatRepository.findById(flatId)
-                .orElseThrow(() -> new FlatNotFoundException(flatId + " not found"));
+        ReserveSlot slot;
+        List<WaitlistEntry> dropped;
+        synchronized (lockFor(flatId)) {
+            Flat flat = flatRepository.findById(flatId)
+                    .orElseThrow(() -> new FlatNotFoundException(flatId + " not found"));
 
-        ReserveSlot slot = flat.getReserves().stream()
-                .filter(r->r.getId().equals(reservationId))
-                .findAny()
-                .orElseThrow(() -> new ReservationNotFoundException(reservationId+ " not found"));
+            slot = flat.getReserves().stream()
+                    .filter(r->r.getId().equals(reservationId))
+                    .findAny()
+                    .orElseThrow(() -> new ReservationNotFoundException(reservationId+ " not found"));
 
-        slot.setStatus(ReserveSlot.Status.REJECTED);
-        flatRepository.save(flat);
-        notificationService.send(slot.getTenantId(), "Your reservation has been rejected");
+            slot.setStatus(ReserveSlot.Status.REJECTED);
+            flatRepository.save(flat);
+            publish(flatId, slot);
+            dropped = waitlistRegistry.clear(flatId, slot.getDateTime());
+            publishWaitlist(flatId, FlatEvent.WaitlistChange.LEFT, dropped);
+        }
+        notificationService.send(slot.getTenantId(), flatId, "Your reservation has been rejected");
+        for (WaitlistEntry entry : dropped) {
+            notificationService.send(entry.getTenantId(), flatId, "The timeslot you were waiting for is no longer available");
+        }
         return new ReservationResponse(slot.getId());
     }
 
+    @Override
+    public List<DecisionResult> decide(List<DecisionRequest> decisions) {
+        DecisionResult[] results = new DecisionResult[decisions.size()];
+        Map<String, List<Integer>> indexesByFlat = new LinkedHashMap<>();
+        for (int i = 0; i < decisions.size(); i++) {
+            DecisionRequest request = decisions.get(i);
+            String invalid = invalidDecision(request);
+            if (invalid != null) {
+                results[i] = DecisionResult.failed(request, invalid);
+                continue;
+            }
+            indexesByFlat.computeIfAbsent(request.getFlatId(), flatId -> new ArrayList<>()).add(i);
+        }
+        List<Notification> notifications = new ArrayList<>();
+        try {
+            indexesByFlat.forEach((flatId, indexes) -> decideForFlat(flatId, indexes, decisions, results, notifications));
+        } finally {
+            if (!notifications.isEmpty()) {
+                notificationService.sendAll(notifications);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private String invalidDecision(DecisionRequest request) {
+        if (request == null) {
+            return "Decision cannot be null";
+        }
+        if (request.getFlatId() == null) {
+            return "flatId cannot be null";
+        }
+        if (request.getReservationId() == null) {
+            return "reservationId cannot be null";
+        }
+        if (request.getDecision() == null) {
+            return "Decision must be APPROVE or REJECT";
+        }
+        return null;
+    }
+
+    @Override
+    public ReservationResponse leaveWaitlist(String flatId, String waitlistId) {
+        synchronized (lockFor(flatId)) {
+            WaitlistEntry entry = waitlistRegistry.withdraw(flatId, waitlistId, TenantContext.currentTenantId())
+                    .orElseThrow(() -> new ReservationNotFoundException(waitlistId + " not found"));
+            publishWaitlist(flatId, FlatEvent.WaitlistChange.LEFT, entry);
+            return new ReservationResponse(entry.getId());
+        }
+    }
+
     @Override
     public ReservationResponse cancel(String flatId, String reservationId) {
-        Flat flat = flatRepository.findById(flatId)
-                .orElseThrow(() -> new FlatNotFoundException(flatId + " not found"));
+        Flat flat;
+        ReserveSlot slot;
+        ReserveSlot promoted = null;
+        List<WaitlistEntry> dropped = List.of();
+        synchronized (lockFor(flatId)) {
+            flat = flatRepository.findById(flatId)
+                    .orElseThrow(() -> new FlatNotFoundException(flatId + " not found"));
 
-        ReserveSlot slot = flat.getReserves().stream()
-                .filter(r->r.getId().equals(reservationId))
-                .findAny()
-                .orElseThrow(() -> new ReservationNotFoundException(reservationId+ " not found"));
+            String tenantId = TenantContext.currentTenantId();
+            slot = flat.getReserves().stream()
+                    .filter(r->r.getId().equals(reservationId) && tenantId.equals(r.getTenantId()))
+                    .findAny()
+                    .orElseThrow(() -> new ReservationNotFoundException(reservationId+ " not found"));
 
-        slot.setStatus(ReserveSlot.Status.CANCELED);
-        flatRepository.save(flat);
-        notificationService.send(flat.getLandlord().getId(), "Your reservation has been cancelled");
+            boolean released = isOccupying(slot);
+            slot.setStatus(ReserveSlot.Status.CANCELED);
+            if (released && bookingRulesRegistry.maskFor(flatId).rejectionFor(slot.getDateTime(), LocalDateTime.now()) != null) {
+                dropped = waitlistRegistry.clear(flatId, slot.getDateTime());
+            } else if (released) {
+                promoted = promoteFromWaitlist(flatId, flat, slot.getDateTime());
+            }
+            flatRepository.save(flat);
+            publish(flatId, slot);
+            publishWaitlist(flatId, FlatEvent.WaitlistChange.LEFT, dropped);
+            if (promoted != null) {
+                publishWaitlist(flatId, FlatEvent.WaitlistChange.LEFT,
+                        new WaitlistEntry(promoted.getId(), promoted.getTenantId(), promoted.getDateTime()));
+                publish(flatId, promoted);
+            }
+        }
+        notificationService.send(flat.getLandlord().getId(), flatId, "Your reservation has been cancelled");
+        if (promoted != null) {
+            notificationService.send(promoted.getTenantId(), flatId, "A timeslot you were waiting for has been reserved for you, it is pending landlord approval");
+            notificationService.send(flat.getLandlord().getId(), flatId, "the reservation for your flat is pending, please approve or reject it");
+        }
+        for (WaitlistEntry entry : dropped) {
+            notificationService.send(entry.getTenantId(), flatId, "The timeslot you were waiting for is no longer available");
+        }
         return new ReservationResponse(slot.getId());
     }
 
     @Override
     public List<String> viewOccupiedDates(String flatId) {
+        if (occupancyProjection != null) {
+            Optional<FlatOccupancy> occupancy = occupancyProjection.find(flatId);
+            if (occupancy.isPresent()) {
+                return occupancy.get().getOccupiedDates();
+            }
+        }
         Flat flat = flatRepository.findById(flatId)
                 .orElseThrow(() -> new FlatNotFoundException(flatId + " not found"));
         return flat.getReserves().stream()
-                .filter(r -> r.getStatus() == ReserveSlot.Status.APPROVED || r.getStatus() == ReserveSlot.Status.PENDING)
+                .filter(this::isOccupying)
                 .map(ReserveSlot::getDateTime)
                 .map(r-> r.format(DateTimeFormatter.ISO_DATE_TIME))
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<String> viewFreeSlots(String flatId) {
+        Set<LocalDateTime> unavailable = unavailableSlots(flatId);
+        return bookingRulesRegistry.maskFor(flatId).bookableSlots(LocalDateTime.now()).stream()
+                .filter(slot -> !unavailable.contains(slot))
+                .map(slot -> slot.format(DateTimeFormatter.ISO_DATE_TIME))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void updateBookingRules(String flatId, BookingRules rules) {
+        synchronized (lockFor(flatId)) {
+            flatRepository.findById(flatId)
+                    .orElseThrow(() -> new FlatNotFoundException(flatId + " not found"));
+            bookingRulesRegistry.register(flatId, rules);
+            if (!eventListeners.isEmpty()) {
+                FlatEvent event = FlatEvent.ofRules(flatId, rules);
+                for (FlatEventListener listener : eventListeners) {
+                    listener.onEvent(event);
+                }
+            }
+        }
+    }
 
-    private ReserveSlot fillValuesForPendingSlot(ReserveSlot reserveSlot) {
-        reserveSlot.setStatus(ReserveSlot.Status.PENDING);
-        reserveSlot.setId(UUID.randomUUID().toString());
-        reserveSlot.setTenantId(getUserFromConext());
-        reserveSlot.setDateTime(reserveSlot.getDateTime().withSecond(0).withNano(0));
-        return reserveSlot;
+    @Override
+    public Optional<Flat> snapshot(String flatId) {
+        synchronized (lockFor(flatId)) {
+            return flatRepository.findById(flatId).map(this::copyOf);
+        }
     }
 
-    private void validateStatus(ReserveSlot.Status status) {
-        if(status == ReserveSlot.Status.REJECTED) {
-            throw new IllegalTimeslotException("You cannot book this timeslot, since it has reject been by the landlord");
+    private Flat copyOf(Flat flat) {
+        Flat copy = new Flat(flat.getId(), flat.getShortDescription(), flat.getAddress());
+        copy.setLandlord(flat.getLandlord());
+        for (ReserveSlot slot : flat.getReserves()) {
+            ReserveSlot slotCopy = new ReserveSlot();
+            slotCopy.setId(slot.getId());
+            slotCopy.setDateTime(slot.getDateTime());
+            slotCopy.setStatus(slot.getStatus());
+            slotCopy.setTenantId(slot.getTenantId());
+            copy.getReserves().add(slotCopy);
         }
+        return copy;
+    }
 
-        if(status == ReserveSlot.Status.APPROVED || status == ReserveSlot.Status.PENDING) {
-            throw new IllegalTimeslotException("You cannot book this timeslot, it has already been occupied by another tenant");
+    private Set<LocalDateTime> unavailableSlots(String flatId) {
+        if (occupancyProjection != null) {
+            Optional<FlatOccupancy> occupancy = occupancyProjection.find(flatId);
+            if (occupancy.isPresent()) {
+                return occupancy.get().getUnavailableSlots();
+            }
+        }
+        Flat flat = flatRepository.findById(flatId)
+                .orElseThrow(() -> new FlatNotFoundException(flatId + " not found"));
+        return flat.getReserves().stream()
+                .filter(r -> r.getStatus() != ReserveSlot.Status.CANCELED)
+                .map(ReserveSlot::getDateTime)
+                .collect(Collectors.toSet());
+    }
+
+    private void decideForFlat(String flatId, List<Integer> indexes, List<DecisionRequest> decisions,
+                               DecisionResult[] results, List<Notification> notifications) {
+        List<Notification> flatNotifications = new ArrayList<>();
+        synchronized (lockFor(flatId)) {
+            Optional<Flat> flat = flatRepository.findById(flatId);
+            if (flat.isEmpty()) {
+                for (int index : indexes) {
+                    results[index] = DecisionResult.failed(decisions.get(index), flatId + " not found");
+                }
+                return;
+            }
+            Map<String, ReserveSlot> slotsById = new HashMap<>();
+            for (ReserveSlot slot : flat.get().getReserves()) {
+                slotsById.put(slot.getId(), slot);
+            }
+            List<ReserveSlot> changed = new ArrayList<>();
+            for (int index : indexes) {
+                DecisionRequest request = decisions.get(index);
+                ReserveSlot slot = slotsById.get(request.getReservationId());
+                if (slot == null) {
+                    results[index] = DecisionResult.failed(request, request.getReservationId() + " not found");
+                } else if (request.getDecision() == DecisionRequest.Decision.APPROVE) {
+                    if (slot.getStatus() == ReserveSlot.Status.CANCELED) {
+                        results[index] = DecisionResult.failed(request, "You cannot approve this reservation, it has already been cancelled by tenant");
+                        continue;
+                    }
+                    slot.setStatus(ReserveSlot.Status.APPROVED);
+                    changed.add(slot);
+                    flatNotifications.add(new Notification(slot.getTenantId(), flatId, "Your reservation has been approved"));
+                    results[index] = DecisionResult.succeeded(request);
+                } else if (request.getDecision() == DecisionRequest.Decision.REJECT) {
+                    slot.setStatus(ReserveSlot.Status.REJECTED);
+                    changed.add(slot);
+                    flatNotifications.add(new Notification(slot.getTenantId(), flatId, "Your reservation has been rejected"));
+                    List<WaitlistEntry> dropped = waitlistRegistry.clear(flatId, slot.getDateTime());
+                    publishWaitlist(flatId, FlatEvent.WaitlistChange.LEFT, dropped);
+                    for (WaitlistEntry entry : dropped) {
+                        flatNotifications.add(new Notification(entry.getTenantId(), flatId, "The timeslot you were waiting for is no longer available"));
+                    }
+                    results[index] = DecisionResult.succeeded(request);
+                } else {
+                    results[index] = DecisionResult.failed(request, "Decision must be APPROVE or REJECT");
+                }
+            }
+            if (changed.isEmpty()) {
+                return;
+            }
+            flatRepository.save(flat.get());
+            for (ReserveSlot slot : changed) {
+                publish(flatId, slot);
+            }
+        }
+        notifications.addAll(flatNotifications);
+    }
+
+    private ReserveSlot promoteFromWaitlist(String flatId, Flat flat, LocalDateTime dateTime) {
+        if (slotsAt(flat, dateTime).stream().anyMatch(r -> isOccupying(r) || r.getStatus() == ReserveSlot.Status.REJECTED)) {
+            return null;
+        }
+        Optional<WaitlistEntry> next = waitlistRegistry.poll(flatId, dateTime);
+        if (next.isEmpty()) {
+            return null;
         }
+        ReserveSlot promoted = new ReserveSlot();
+        promoted.setId(next.get().getId());
+        promoted.setTenantId(next.get().getTenantId());
+        promoted.setDateTime(dateTime);
+        promoted.setStatus(ReserveSlot.Status.PENDING);
+        flat.getReserves().add(promoted);
+        return promoted;
     }
 
-    private void validateSlotDatetime(LocalDateTime dateTime) {
-        LocalDateTime now = LocalDateTime.now();
+    private List<ReserveSlot> slotsAt(Flat flat, LocalDateTime dateTime) {
+        List<ReserveSlot> slots = new ArrayList<>();
+        for (ReserveSlot slot : flat.getReserves()) {
+            if (slot.getDateTime().equals(dateTime)) {
+                slots.add(slot);
+            }
+        }
+        return slots;
+    }
 
-        if (dateTime == null) {
-            throw new IllegalTimeslotException("Datetime cannot be null");
+    private boolean isOccupying(ReserveSlot slot) {
+        return slot.getStatus() == ReserveSlot.Status.APPROVED || slot.getStatus() == ReserveSlot.Status.PENDING;
+    }
+
+    private Object lockFor(String flatId) {
+        return flatLocks[Math.floorMod(Objects.hashCode(flatId), LOCK_STRIPES)];
+    }
+
+    private void publish(String flatId, ReserveSlot slot) {
+        if (eventListeners.isEmpty()) {
+            return;
+        }
+        FlatEvent event = FlatEvent.of(flatId, slot);
+        for (FlatEventListener listener : eventListeners) {
+            listener.onEvent(event);
         }
-        if (dateTime.isBefore(now)) {
-            throw new IllegalTimeslotException("You cannot book time in past");
+    }
+
+    private void publishWaitlist(String flatId, FlatEvent.WaitlistChange change, List<WaitlistEntry> entries) {
+        for (WaitlistEntry entry : entries) {
+            publishWaitlist(flatId, change, entry);
         }
+    }
 
-        if(Duration.between(now, dateTime).toDays() >= MAX_DAY_FUTURE_BOOKING) {
-            throw new IllegalTimeslotException("You can only book for the next 7 days");
+    private void publishWaitlist(String flatId, FlatEvent.WaitlistChange change, WaitlistEntry entry) {
+        if (eventListeners.isEmpty()) {
+            return;
+        }
+        FlatEvent event = FlatEvent.ofWaitlist(flatId, change, entry);
+        for (FlatEventListener listener : eventListeners) {
+            listener.onEvent(event);
         }
+    }
 
-        if(Duration.between(now, dateTime).toHours() < MIN_HOURS_BEFORE_BOOKING) {
-            throw new IllegalTimeslotException("You cannot book appointment for time less than 24 hours");
+    private ReserveSlot fillValuesForPendingSlot(ReserveSlot reserveSlot) {
+        reserveSlot.setStatus(ReserveSlot.Status.PENDING);
+        reserveSlot.setId(UUID.randomUUID().toString());
+        reserveSlot.setTenantId(TenantContext.currentTenantId());
+        reserveSlot.setDateTime(reserveSlot.getDateTime().withSecond(0).withNano(0));
+        return reserveSlot;
+    }
+
+    private void validateStatus(ReserveSlot.Status status) {
+        String rejection = rejectionForStatus(status);
+        if (rejection != null) {
+            throw new IllegalTimeslotException(rejection);
         }
+    }
 
-        if (dateTime.getMinute() % VIEW_SLOT != 0) {
-            throw new IllegalTimeslotException("You can only book a timeslot of 20 minutes");
+    private String rejectionForStatus(ReserveSlot.Status status) {
+        if(status == ReserveSlot.Status.REJECTED) {
+            return "You cannot book this timeslot, since it has reject been by the landlord";
         }
 
-        if (!ValueRange.of(STAR_VIEW_HOUR, END_VIEW_HOUR).isValidValue(dateTime.getHour())) {
-            throw new IllegalTimeslotException("You can only book a timeslot between 10:00 and 20:00");
+        if(status == ReserveSlot.Status.APPROVED || status == ReserveSlot.Status.PENDING) {
+            return "You cannot book this timeslot, it has already been occupied by another tenant";
         }
+        return null;
     }
 
-    private String getUserFromConext() {
-        return "tenantUserId";
+    private void validateSlotDatetime(String flatId, LocalDateTime dateTime) {
+        String rejection = bookingRulesRegistry.maskFor(flatId).rejectionFor(dateTime, LocalDateTime.now());
+        if (rejection != null) {
+            throw new IllegalTimeslotException(rejection);
+        }
     }
 }
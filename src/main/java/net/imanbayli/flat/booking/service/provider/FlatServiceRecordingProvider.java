@@ -0,0 +1,209 @@
+package net.imanbayli.flat.booking.service.provider;
+
+import net.imanbayli.flat.booking.jfr.FlatServiceEvent;
+import net.imanbayli.flat.booking.jfr.Outcomes;
+import net.imanbayli.flat.booking.model.BookingRules;
+import net.imanbayli.flat.booking.model.DecisionRequest;
+import net.imanbayli.flat.booking.model.DecisionResult;
+import net.imanbayli.flat.booking.model.Flat;
+import net.imanbayli.flat.booking.model.ReservationOutcome;
+import net.imanbayli.flat.booking.model.ReservationResponse;
+import net.imanbayli.flat.booking.model.ReserveSlot;
+import net.imanbayli.flat.booking.model.WaitlistResponse;
+import net.imanbayli.flat.booking.service.FlatService;
+
+import java.util.List;
+import java.util.Optional;
+
+public class FlatServiceRecordingProvider implements FlatService {
+    private final FlatService delegate;
+
+    public FlatServiceRecordingProvider(FlatService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ReservationResponse reserve(String flatId, ReserveSlot requestSlot) {
+        FlatServiceEvent event = new FlatServiceEvent();
+        event.begin();
+        try {
+            ReservationResponse result = delegate.reserve(flatId, requestSlot);
+            commit(event, "reserve", flatId, 1, null);
+            return result;
+        } catch (RuntimeException e) {
+            commit(event, "reserve", flatId, 0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public ReservationOutcome tryReserve(String flatId, ReserveSlot requestSlot) {
+        FlatServiceEvent event = new FlatServiceEvent();
+        event.begin();
+        try {
+            ReservationOutcome result = delegate.tryReserve(flatId, requestSlot);
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = "tryReserve";
+                event.flatId = flatId;
+                event.reservationCount = result.isRejected() ? 0 : 1;
+                event.outcome = result.isRejected() ? result.getRejection().name() : Outcomes.SUCCESS;
+                event.commit();
+            }
+            return result;
+        } catch (RuntimeException e) {
+            commit(event, "tryReserve", flatId, 0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public WaitlistResponse joinWaitlist(String flatId, ReserveSlot requestSlot) {
+        FlatServiceEvent event = new FlatServiceEvent();
+        event.begin();
+        try {
+            WaitlistResponse result = delegate.joinWaitlist(flatId, requestSlot);
+            commit(event, "joinWaitlist", flatId, 1, null);
+            return result;
+        } catch (RuntimeException e) {
+            commit(event, "joinWaitlist", flatId, 0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public ReservationResponse leaveWaitlist(String flatId, String waitlistId) {
+        FlatServiceEvent event = new FlatServiceEvent();
+        event.begin();
+        try {
+            ReservationResponse result = delegate.leaveWaitlist(flatId, waitlistId);
+            commit(event, "leaveWaitlist", flatId, 1, null);
+            return result;
+        } catch (RuntimeException e) {
+            commit(event, "leaveWaitlist", flatId, 0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public ReservationResponse approve(String flatId, String reservationId) {
+        FlatServiceEvent event = new FlatServiceEvent();
+        event.begin();
+        try {
+            ReservationResponse result = delegate.approve(flatId, reservationId);
+            commit(event, "approve", flatId, 1, null);
+            return result;
+        } catch (RuntimeException e) {
+            commit(event, "approve", flatId, 0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public ReservationResponse reject(String flatId, String reservationId) {
+        FlatServiceEvent event = new FlatServiceEvent();
+        event.begin();
+        try {
+            ReservationResponse result = delegate.reject(flatId, reservationId);
+            commit(event, "reject", flatId, 1, null);
+            return result;
+        } catch (RuntimeException e) {
+            commit(event, "reject", flatId, 0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public ReservationResponse cancel(String flatId, String reservationId) {
+        FlatServiceEvent event = new FlatServiceEvent();
+        event.begin();
+        try {
+            ReservationResponse result = delegate.cancel(flatId, reservationId);
+            commit(event, "cancel", flatId, 1, null);
+            return result;
+        } catch (RuntimeException e) {
+            commit(event, "cancel", flatId, 0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<DecisionResult> decide(List<DecisionRequest> decisions) {
+        FlatServiceEvent event = new FlatServiceEvent();
+        event.begin();
+        try {
+            List<DecisionResult> result = delegate.decide(decisions);
+            commit(event, "decide", null, decisions.size(), null);
+            return result;
+        } catch (RuntimeException e) {
+            commit(event, "decide", null, 0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<String> viewOccupiedDates(String flatId) {
+        FlatServiceEvent event = new FlatServiceEvent();
+        event.begin();
+        try {
+            List<String> result = delegate.viewOccupiedDates(flatId);
+            commit(event, "viewOccupiedDates", flatId, result.size(), null);
+            return result;
+        } catch (RuntimeException e) {
+            commit(event, "viewOccupiedDates", flatId, 0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<String> viewFreeSlots(String flatId) {
+        FlatServiceEvent event = new FlatServiceEvent();
+        event.begin();
+        try {
+            List<String> result = delegate.viewFreeSlots(flatId);
+            commit(event, "viewFreeSlots", flatId, result.size(), null);
+            return result;
+        } catch (RuntimeException e) {
+            commit(event, "viewFreeSlots", flatId, 0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void updateBookingRules(String flatId, BookingRules rules) {
+        FlatServiceEvent event = new FlatServiceEvent();
+        event.begin();
+        try {
+            delegate.updateBookingRules(flatId, rules);
+            commit(event, "updateBookingRules", flatId, 0, null);
+        } catch (RuntimeException e) {
+            commit(event, "updateBookingRules", flatId, 0, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<Flat> snapshot(String flatId) {
+        FlatServiceEvent event = new FlatServiceEvent();
+        event.begin();
+        try {
+            Optional<Flat> result = delegate.snapshot(flatId);
+            commit(event, "snapshot", flatId, result.map(flat -> flat.getReserves().size()).orElse(0), null);
+            return result;
+        } catch (RuntimeException e) {
+            commit(event, "snapshot", flatId, 0, e);
+            throw e;
+        }
+    }
+
+    private static void commit(FlatServiceEvent event, String operation, String flatId, int reservationCount, Throwable failure) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.flatId = flatId;
+            event.reservationCount = reservationCount;
+            event.outcome = Outcomes.of(failure);
+            event.commit();
+        }
+    }
+}
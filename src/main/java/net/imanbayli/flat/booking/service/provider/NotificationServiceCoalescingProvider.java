@@ -0,0 +1,225 @@
+package net.imanbayli.flat.booking.service.provider;
+
+import net.imanbayli.flat.booking.model.Notification;
+import net.imanbayli.flat.booking.service.NotificationService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Merges the notifications for one recipient into a single digest. A digest is delivered once no new message has
+ * arrived for {@code window}, or at the latest {@code maxDelay} after its first message. Each digest keeps at most
+ * {@code maxDistinctMessages} distinct texts; anything beyond that is only counted. Digests that name the flats they
+ * are about also count the distinct flats, up to {@link #MAX_TRACKED_FLATS}.
+ * <p>
+ * Open digests sit in a queue ordered by the time they should next be checked, so a delivery round only looks at the
+ * digests that are due and sends them in a single {@link NotificationService#sendAll} call. A round the delegate
+ * fails is counted in {@link #getFailedCount()} and dropped.
+ */
+public class NotificationServiceCoalescingProvider implements NotificationService {
+    static final int MAX_TRACKED_FLATS = 1_024;
+
+    private final NotificationService delegate;
+    private final long windowNanos;
+    private final long maxDelayNanos;
+    private final int maxDistinctMessages;
+    private final Map<String, Digest> pending = new ConcurrentHashMap<>();
+    private final PriorityQueue<DueCheck> dueChecks = new PriorityQueue<>((a, b) -> Long.signum(a.at - b.at));
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong receivedCount = new AtomicLong();
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    public NotificationServiceCoalescingProvider(NotificationService delegate, Duration window, Duration maxDelay,
+                                                 int maxDistinctMessages) {
+        this.delegate = delegate;
+        this.windowNanos = window.toNanos();
+        this.maxDelayNanos = Math.max(window.toNanos(), maxDelay.toNanos());
+        this.maxDistinctMessages = maxDistinctMessages;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "notification-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void send(String userId, String message) {
+        send(userId, null, message);
+    }
+
+    @Override
+    public void send(String userId, String flatId, String message) {
+        receivedCount.incrementAndGet();
+        add(userId, flatId, message);
+    }
+
+    @Override
+    public void sendAll(List<Notification> notifications) {
+        receivedCount.addAndGet(notifications.size());
+        for (Notification notification : notifications) {
+            add(notification.getUserId(), notification.getFlatId(), notification.getMessage());
+        }
+    }
+
+    public void flush() {
+        deliver(System.nanoTime(), true);
+    }
+
+    public long getReceivedCount() {
+        return receivedCount.get();
+    }
+
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    private void add(String userId, String flatId, String message) {
+        while (!pending.computeIfAbsent(userId, this::openDigest).add(flatId, message)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private Digest openDigest(String userId) {
+        Digest digest = new Digest(userId, System.nanoTime());
+        synchronized (dueChecks) {
+            dueChecks.add(new DueCheck(digest, digest.openedAt + windowNanos));
+        }
+        scheduler.schedule(() -> deliver(System.nanoTime(), false), windowNanos, TimeUnit.NANOSECONDS);
+        return digest;
+    }
+
+    private void deliver(long now, boolean force) {
+        List<Notification> batch = new ArrayList<>();
+        List<Digest> closed = new ArrayList<>();
+        List<Long> recheckAt = new ArrayList<>();
+        synchronized (dueChecks) {
+            while (!dueChecks.isEmpty() && (force || dueChecks.peek().at - now <= 0)) {
+                Digest digest = dueChecks.poll().digest;
+                synchronized (digest) {
+                    if (digest.closed) {
+                        continue;
+                    }
+                    long dueAt = digest.dueAt();
+                    if (force || dueAt - now <= 0) {
+                        batch.add(digest.close());
+                        closed.add(digest);
+                    } else {
+                        dueChecks.add(new DueCheck(digest, dueAt));
+                        recheckAt.add(dueAt);
+                    }
+                }
+            }
+        }
+        for (Digest digest : closed) {
+            pending.remove(digest.userId, digest);
+        }
+        for (long at : recheckAt) {
+            scheduler.schedule(() -> deliver(System.nanoTime(), false), at - now, TimeUnit.NANOSECONDS);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            if (batch.size() == 1) {
+                delegate.send(batch.get(0).getUserId(), batch.get(0).getFlatId(), batch.get(0).getMessage());
+            } else {
+                delegate.sendAll(batch);
+            }
+            deliveredCount.addAndGet(batch.size());
+        } catch (RuntimeException e) {
+            failedCount.addAndGet(batch.size());
+            e.printStackTrace();
+        }
+    }
+
+    private static class DueCheck {
+        private final Digest digest;
+        private final long at;
+
+        DueCheck(Digest digest, long at) {
+            this.digest = digest;
+            this.at = at;
+        }
+    }
+
+    private class Digest {
+        private final String userId;
+        private final long openedAt;
+        private final Map<String, Integer> counts = new LinkedHashMap<>();
+        private final Set<String> flatIds = new HashSet<>();
+        private long lastAt;
+        private int total;
+        private int overflow;
+        private boolean closed;
+
+        Digest(String userId, long openedAt) {
+            this.userId = userId;
+            this.openedAt = openedAt;
+            this.lastAt = openedAt;
+        }
+
+        synchronized boolean add(String flatId, String message) {
+            if (closed) {
+                return false;
+            }
+            if (counts.containsKey(message) || counts.size() < maxDistinctMessages) {
+                counts.merge(message, 1, Integer::sum);
+            } else {
+                overflow++;
+            }
+            if (flatId != null && flatIds.size() < MAX_TRACKED_FLATS) {
+                flatIds.add(flatId);
+            }
+            total++;
+            lastAt = System.nanoTime();
+            return true;
+        }
+
+        long dueAt() {
+            return Math.min(lastAt + windowNanos, openedAt + maxDelayNanos);
+        }
+
+        Notification close() {
+            closed = true;
+            return new Notification(userId, flatIds.size() == 1 ? flatIds.iterator().next() : null, render());
+        }
+
+        String render() {
+            if (total == 1 && overflow == 0) {
+                return counts.keySet().iterator().next();
+            }
+            List<String> parts = new ArrayList<>();
+            counts.forEach((message, count) -> parts.add(count + " x " + message));
+            if (overflow > 0) {
+                parts.add(overflow + " x other notifications");
+            }
+            return "You have " + total + " new notifications" + flatsSuffix() + ": " + String.join("; ", parts);
+        }
+
+        private String flatsSuffix() {
+            if (flatIds.isEmpty()) {
+                return "";
+            }
+            if (flatIds.size() >= MAX_TRACKED_FLATS) {
+                return " across " + MAX_TRACKED_FLATS + "+ flats";
+            }
+            return flatIds.size() == 1 ? " for 1 flat" : " across " + flatIds.size() + " flats";
+        }
+    }
+}
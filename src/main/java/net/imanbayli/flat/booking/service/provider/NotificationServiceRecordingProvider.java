@@ -0,0 +1,59 @@
+package net.imanbayli.flat.booking.service.provider;
+
+import net.imanbayli.flat.booking.jfr.NotificationEvent;
+import net.imanbayli.flat.booking.jfr.Outcomes;
+import net.imanbayli.flat.booking.model.Notification;
+import net.imanbayli.flat.booking.service.NotificationService;
+
+import java.util.List;
+
+public class NotificationServiceRecordingProvider implements NotificationService {
+    private final NotificationService delegate;
+
+    public NotificationServiceRecordingProvider(NotificationService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void send(String userId, String message) {
+        NotificationEvent event = new NotificationEvent();
+        event.begin();
+        Throwable failure = null;
+        try {
+            delegate.send(userId, message);
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.userId = userId;
+                event.messageLength = message == null ? 0 : message.length();
+                event.messageCount = 1;
+                event.outcome = Outcomes.of(failure);
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public void sendAll(List<Notification> notifications) {
+        NotificationEvent event = new NotificationEvent();
+        event.begin();
+        Throwable failure = null;
+        try {
+            delegate.sendAll(notifications);
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.messageLength = notifications.stream().mapToInt(n -> n.getMessage() == null ? 0 : n.getMessage().length()).sum();
+                event.messageCount = notifications.size();
+                event.outcome = Outcomes.of(failure);
+                event.commit();
+            }
+        }
+    }
+}
@@ -1,11 +1,23 @@
 package net.imanbayli.flat.booking.service.provider;
 
+import net.imanbayli.flat.booking.model.Notification;
 import net.imanbayli.flat.booking.service.NotificationService;
 
+import java.util.List;
+
 public class NotificationServiceStubProvider implements NotificationService {
 
     @Override
     public void send(String userId, String message) {
         System.out.println(message + " sent to userId: "+userId);
     }
+
+    @Override
+    public void sendAll(List<Notification> notifications) {
+        StringBuilder batch = new StringBuilder();
+        for (Notification notification : notifications) {
+            batch.append(notification.getMessage()).append(" sent to userId: ").append(notification.getUserId()).append('\n');
+        }
+        System.out.print(batch);
+    }
 }
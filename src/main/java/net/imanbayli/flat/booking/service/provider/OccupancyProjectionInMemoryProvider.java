@@ -0,0 +1,130 @@
+package net.imanbayli.flat.booking.service.provider;
+
+import net.imanbayli.flat.booking.codec.BookingJsonCodec;
+import net.imanbayli.flat.booking.model.FlatEvent;
+import net.imanbayli.flat.booking.model.FlatOccupancy;
+import net.imanbayli.flat.booking.model.ReserveSlot;
+import net.imanbayli.flat.booking.repository.FlatRepository;
+import net.imanbayli.flat.booking.service.OccupancyProjection;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Read side of the flat booking model. Events are applied by a single projector thread, so writers never wait for
+ * readers and readers only ever see immutable, pre-rendered {@link FlatOccupancy} snapshots. The first event of a
+ * flat is preceded by the flat's reservations as stored in the repository, so bookings made before this projection
+ * started, e.g. in a mapped repository file, are not lost. Events are published under the flat's lock, which makes
+ * that read consistent with the event order.
+ */
+public class OccupancyProjectionInMemoryProvider implements OccupancyProjection {
+    private final BlockingQueue<FlatEvent> queue = new LinkedBlockingQueue<>();
+    private final Map<String, FlatOccupancy> views = new ConcurrentHashMap<>();
+    private final Set<String> seededFlats = ConcurrentHashMap.newKeySet();
+    private final Map<String, Map<String, FlatEvent>> slotsByFlat = new HashMap<>();
+    private final BookingJsonCodec codec = new BookingJsonCodec();
+    private final AtomicLong receivedEvents = new AtomicLong();
+    private final AtomicLong appliedEvents = new AtomicLong();
+
+    private final FlatRepository flatRepository;
+
+    public OccupancyProjectionInMemoryProvider(FlatRepository flatRepository) {
+        this.flatRepository = flatRepository;
+        Thread projector = new Thread(this::project, "occupancy-projector");
+        projector.setDaemon(true);
+        projector.start();
+    }
+
+    @Override
+    public void onEvent(FlatEvent event) {
+        if (event.isRulesChange() || event.isWaitlistChange()) {
+            return;
+        }
+        if (seededFlats.add(event.getFlatId())) {
+            flatRepository.findById(event.getFlatId()).ifPresent(flat -> {
+                for (ReserveSlot slot : flat.getReserves()) {
+                    receivedEvents.incrementAndGet();
+                    queue.add(FlatEvent.of(flat.getId(), slot));
+                }
+            });
+        }
+        receivedEvents.incrementAndGet();
+        queue.add(event);
+    }
+
+    @Override
+    public Optional<FlatOccupancy> find(String flatId) {
+        return Optional.ofNullable(views.get(flatId));
+    }
+
+    @Override
+    public long getLagMillis() {
+        FlatEvent oldest = queue.peek();
+        return oldest == null ? 0 : Math.max(0, System.currentTimeMillis() - oldest.getTimestamp());
+    }
+
+    @Override
+    public long getPendingEvents() {
+        return receivedEvents.get() - appliedEvents.get();
+    }
+
+    private void project() {
+        while (!Thread.currentThread().isInterrupted()) {
+            FlatEvent event;
+            try {
+                event = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                apply(event);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            } finally {
+                appliedEvents.incrementAndGet();
+            }
+        }
+    }
+
+    private void apply(FlatEvent event) {
+        Map<String, FlatEvent> slots = slotsByFlat.computeIfAbsent(event.getFlatId(), id -> new HashMap<>());
+        if (event.getStatus() == ReserveSlot.Status.CANCELED) {
+            slots.remove(event.getReservationId());
+        } else {
+            slots.put(event.getReservationId(), event);
+        }
+        views.put(event.getFlatId(), render(event.getFlatId(), slots));
+    }
+
+    private FlatOccupancy render(String flatId, Map<String, FlatEvent> slots) {
+        List<String> dates = slots.values().stream()
+                .filter(FlatEvent::isOccupying)
+                .map(FlatEvent::getDateTime)
+                .sorted()
+                .map(r -> r.format(DateTimeFormatter.ISO_DATE_TIME))
+                .collect(Collectors.toCollection(ArrayList::new));
+        Set<LocalDateTime> unavailable = slots.values().stream()
+                .map(FlatEvent::getDateTime)
+                .collect(Collectors.toUnmodifiableSet());
+        try {
+            return new FlatOccupancy(flatId, Collections.unmodifiableList(dates), codec.writeDates(dates), unavailable);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
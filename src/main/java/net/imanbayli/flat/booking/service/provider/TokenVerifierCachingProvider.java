@@ -0,0 +1,96 @@
+package net.imanbayli.flat.booking.service.provider;
+
+import net.imanbayli.flat.booking.model.Tenant;
+import net.imanbayli.flat.booking.service.TokenVerifier;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers tenants resolved by the delegate for {@code ttl}, so a token seen recently is resolved with one map
+ * lookup. Rejected tokens and failures of the delegate are not cached, so a stream of junk tokens cannot push valid
+ * ones out. Once {@code maxEntries} tokens are cached, expired entries are swept and, if that is not enough, an
+ * arbitrary eighth of the cache is dropped.
+ */
+public class TokenVerifierCachingProvider implements TokenVerifier {
+    private final TokenVerifier delegate;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Clock clock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public TokenVerifierCachingProvider(TokenVerifier delegate, Duration ttl, int maxEntries, Clock clock) {
+        this.delegate = delegate;
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = Math.max(1, maxEntries);
+        this.clock = clock;
+    }
+
+    @Override
+    public Optional<Tenant> verify(String token) {
+        long now = clock.millis();
+        Entry cached = entries.get(token);
+        if (cached != null && now < cached.expiresAt) {
+            hits.incrementAndGet();
+            return Optional.of(cached.tenant);
+        }
+        misses.incrementAndGet();
+        Optional<Tenant> tenant = delegate.verify(token);
+        if (tenant.isEmpty()) {
+            if (cached != null) {
+                entries.remove(token, cached);
+            }
+            return tenant;
+        }
+        if (cached == null && entries.size() >= maxEntries) {
+            evict(now);
+        }
+        entries.put(token, new Entry(tenant.get(), now + ttlMillis));
+        return tenant;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public double getHitRatio() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict(long now) {
+        entries.values().removeIf(entry -> now >= entry.expiresAt);
+        int excess = entries.size() - maxEntries + Math.max(1, maxEntries / 8);
+        Iterator<String> tokens = entries.keySet().iterator();
+        while (excess-- > 0 && tokens.hasNext()) {
+            tokens.next();
+            tokens.remove();
+        }
+    }
+
+    private static class Entry {
+        private final Tenant tenant;
+        private final long expiresAt;
+
+        Entry(Tenant tenant, long expiresAt) {
+            this.tenant = tenant;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
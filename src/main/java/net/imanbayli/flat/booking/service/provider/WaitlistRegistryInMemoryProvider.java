@@ -0,0 +1,118 @@
+package net.imanbayli.flat.booking.service.provider;
+
+import net.imanbayli.flat.booking.exception.IllegalTimeslotException;
+import net.imanbayli.flat.booking.model.WaitlistEntry;
+import net.imanbayli.flat.booking.service.WaitlistRegistry;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class WaitlistRegistryInMemoryProvider implements WaitlistRegistry {
+    public static final int DEFAULT_CAPACITY_PER_SLOT = 20;
+
+    private final int capacityPerSlot;
+    private final Clock clock;
+    private final Map<String, Map<LocalDateTime, Deque<WaitlistEntry>>> waitlists = new ConcurrentHashMap<>();
+    private final AtomicLong waitingCount = new AtomicLong();
+
+    public WaitlistRegistryInMemoryProvider() {
+        this(DEFAULT_CAPACITY_PER_SLOT, Clock.systemDefaultZone());
+    }
+
+    public WaitlistRegistryInMemoryProvider(int capacityPerSlot, Clock clock) {
+        if (capacityPerSlot < 1) {
+            throw new IllegalArgumentException("capacityPerSlot must be positive");
+        }
+        this.capacityPerSlot = capacityPerSlot;
+        this.clock = clock;
+    }
+
+    @Override
+    public int add(String flatId, WaitlistEntry entry) {
+        Map<LocalDateTime, Deque<WaitlistEntry>> slots = waitlists.computeIfAbsent(flatId, id -> new HashMap<>());
+        removePastSlots(slots);
+        Deque<WaitlistEntry> queue = slots.computeIfAbsent(entry.getDateTime(), dateTime -> new ArrayDeque<>());
+        if (queue.size() >= capacityPerSlot) {
+            throw new IllegalTimeslotException("The waitlist for this timeslot is full");
+        }
+        queue.addLast(entry);
+        waitingCount.incrementAndGet();
+        return queue.size();
+    }
+
+    @Override
+    public Optional<WaitlistEntry> poll(String flatId, LocalDateTime dateTime) {
+        Map<LocalDateTime, Deque<WaitlistEntry>> slots = waitlists.get(flatId);
+        Deque<WaitlistEntry> queue = slots == null ? null : slots.get(dateTime);
+        if (queue == null) {
+            return Optional.empty();
+        }
+        WaitlistEntry entry = queue.pollFirst();
+        waitingCount.decrementAndGet();
+        if (queue.isEmpty()) {
+            slots.remove(dateTime);
+        }
+        return Optional.of(entry);
+    }
+
+    @Override
+    public List<WaitlistEntry> clear(String flatId, LocalDateTime dateTime) {
+        Map<LocalDateTime, Deque<WaitlistEntry>> slots = waitlists.get(flatId);
+        Deque<WaitlistEntry> queue = slots == null ? null : slots.remove(dateTime);
+        if (queue == null) {
+            return List.of();
+        }
+        waitingCount.addAndGet(-queue.size());
+        return new ArrayList<>(queue);
+    }
+
+    @Override
+    public Optional<WaitlistEntry> withdraw(String flatId, String entryId, String tenantId) {
+        Map<LocalDateTime, Deque<WaitlistEntry>> slots = waitlists.get(flatId);
+        if (slots == null) {
+            return Optional.empty();
+        }
+        for (Iterator<Deque<WaitlistEntry>> queues = slots.values().iterator(); queues.hasNext(); ) {
+            Deque<WaitlistEntry> queue = queues.next();
+            for (Iterator<WaitlistEntry> entries = queue.iterator(); entries.hasNext(); ) {
+                WaitlistEntry entry = entries.next();
+                if (entry.getId().equals(entryId) && entry.getTenantId().equals(tenantId)) {
+                    entries.remove();
+                    waitingCount.decrementAndGet();
+                    if (queue.isEmpty()) {
+                        queues.remove();
+                    }
+                    return Optional.of(entry);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public long getWaitingCount() {
+        return waitingCount.get();
+    }
+
+    private void removePastSlots(Map<LocalDateTime, Deque<WaitlistEntry>> slots) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        Iterator<Map.Entry<LocalDateTime, Deque<WaitlistEntry>>> iterator = slots.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<LocalDateTime, Deque<WaitlistEntry>> slot = iterator.next();
+            if (slot.getKey().isBefore(now)) {
+                waitingCount.addAndGet(-slot.getValue().size());
+                iterator.remove();
+            }
+        }
+    }
+}
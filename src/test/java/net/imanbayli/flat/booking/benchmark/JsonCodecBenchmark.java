@@ -0,0 +1,71 @@
+package net.imanbayli.flat.booking.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.imanbayli.flat.booking.codec.BookingJsonCodec;
+import net.imanbayli.flat.booking.model.ReservationResponse;
+import net.imanbayli.flat.booking.model.ReserveSlot;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compares the per-request JSON work of the booking routes: the ObjectMapper path (String body in, String body out)
+ * against {@link BookingJsonCodec} (byte stream in, pooled buffer out). Run like {@link RejectionBenchmark}.
+ */
+public class JsonCodecBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final int OPERATIONS = 200_000;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final BookingJsonCodec CODEC = new BookingJsonCodec();
+    private static long sink;
+
+    public static void main(String[] args) throws Exception {
+        byte[] request = "{\"dateTime\":\"2021-01-04T14:20\"}".getBytes(StandardCharsets.UTF_8);
+        ReservationResponse response = new ReservationResponse(UUID.randomUUID().toString());
+        List<String> dates = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            dates.add("2021-01-0" + (1 + i % 7) + "T1" + (i % 10) + ":20:00");
+        }
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            objectMapper(request, response, dates);
+            codec(request, response, dates);
+        }
+        double mapper = 0;
+        double codec = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            mapper += objectMapper(request, response, dates);
+            codec += codec(request, response, dates);
+        }
+        System.out.printf("ObjectMapper     : %,.0f requests/s%n", mapper / MEASURED_ROUNDS);
+        System.out.printf("BookingJsonCodec : %,.0f requests/s%n", codec / MEASURED_ROUNDS);
+        System.out.println("(sink " + sink + ")");
+    }
+
+    private static double objectMapper(byte[] request, ReservationResponse response, List<String> dates) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            ReserveSlot slot = MAPPER.readValue(new String(request, StandardCharsets.UTF_8), ReserveSlot.class);
+            sink += slot.getDateTime().getMinute();
+            sink += MAPPER.writeValueAsString(response).length();
+            sink += MAPPER.writeValueAsString(dates).length();
+        }
+        return OPERATIONS / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static double codec(byte[] request, ReservationResponse response, List<String> dates) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            ReserveSlot slot = CODEC.readReserveSlot(new ByteArrayInputStream(request));
+            sink += slot.getDateTime().getMinute();
+            sink += CODEC.writeReservationResponse(response).length;
+            sink += CODEC.writeDates(dates).length;
+        }
+        return OPERATIONS / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,126 @@
+package net.imanbayli.flat.booking.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.imanbayli.flat.booking.exception.ErrorResponseCache;
+import net.imanbayli.flat.booking.model.ErrorResponse;
+import net.imanbayli.flat.booking.model.Flat;
+import net.imanbayli.flat.booking.model.Landlord;
+import net.imanbayli.flat.booking.model.ReservationOutcome;
+import net.imanbayli.flat.booking.model.ReservationResponse;
+import net.imanbayli.flat.booking.model.ReserveSlot;
+import net.imanbayli.flat.booking.model.Tenant;
+import net.imanbayli.flat.booking.repository.FlatRepository;
+import net.imanbayli.flat.booking.repository.provider.FlatRepositoryInMemoryProvider;
+import net.imanbayli.flat.booking.service.TenantContext;
+import net.imanbayli.flat.booking.service.provider.FlatServiceDefaultProvider;
+import net.imanbayli.flat.booking.service.provider.NotificationServiceStubProvider;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Measures rejected reservations end to end (service call plus error body). The pre-change path throws an exception
+ * that captures its stack trace at about the depth of the old throw sites and renders a new {@link ErrorResponse}
+ * with Jackson; the stackless path does the same with the current exceptions; {@code tryReserve} is served from
+ * {@link ErrorResponseCache}.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=net.imanbayli.flat.booking.benchmark.RejectionBenchmark} or from the IDE.
+ */
+public class RejectionBenchmark {
+    private static final String FLAT_ID = "BENCHMARK_FLAT";
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final int OPERATIONS = 200_000;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static long sink;
+
+    public static void main(String[] args) throws Exception {
+        FlatRepository repository = new FlatRepositoryInMemoryProvider();
+        Flat flat = new Flat(FLAT_ID, "benchmark", "benchmark");
+        flat.setLandlord(new Landlord("BENCHMARK_LANDLORD", null, null));
+        repository.save(flat);
+        FlatServiceDefaultProvider service = new FlatServiceDefaultProvider(repository, new NotificationServiceStubProvider());
+        LocalDateTime occupied = LocalDate.now().plusDays(3).atTime(14, 20);
+        TenantContext.set(Tenant.of("BENCHMARK_TENANT"));
+        service.reserve(FLAT_ID, slotAt(occupied));
+        LocalDateTime[] rejected = {occupied, LocalDateTime.now().minusDays(1), occupied.withMinute(21)};
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            stackTracePath(service, rejected);
+            exceptionPath(service, rejected);
+            outcomePath(service, rejected);
+        }
+        double stackTraces = 0;
+        double exceptions = 0;
+        double outcomes = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            stackTraces += stackTracePath(service, rejected);
+            exceptions += exceptionPath(service, rejected);
+            outcomes += outcomePath(service, rejected);
+        }
+        System.out.printf("stack trace + Jackson: %,.0f rejections/s%n", stackTraces / MEASURED_ROUNDS);
+        System.out.printf("stackless + Jackson  : %,.0f rejections/s%n", exceptions / MEASURED_ROUNDS);
+        System.out.printf("outcome + cached     : %,.0f rejections/s%n", outcomes / MEASURED_ROUNDS);
+        System.out.println("(sink " + sink + ")");
+    }
+
+    private static double stackTracePath(FlatServiceDefaultProvider service, LocalDateTime[] rejected) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            try {
+                reserveWithStackTrace(service, slotAt(rejected[i % rejected.length]));
+            } catch (StackTraceRejection e) {
+                ErrorResponse errorResponse = new ErrorResponse();
+                errorResponse.setMessage(e.getMessage());
+                sink += MAPPER.writeValueAsString(errorResponse).length();
+            }
+        }
+        return OPERATIONS / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static ReservationResponse reserveWithStackTrace(FlatServiceDefaultProvider service, ReserveSlot slot) {
+        ReservationOutcome outcome = service.tryReserve(FLAT_ID, slot);
+        if (outcome.isRejected()) {
+            throw new StackTraceRejection(outcome.getMessage());
+        }
+        return outcome.getResponse();
+    }
+
+    private static double exceptionPath(FlatServiceDefaultProvider service, LocalDateTime[] rejected) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            try {
+                service.reserve(FLAT_ID, slotAt(rejected[i % rejected.length]));
+            } catch (RuntimeException e) {
+                ErrorResponse errorResponse = new ErrorResponse();
+                errorResponse.setMessage(e.getMessage());
+                sink += MAPPER.writeValueAsString(errorResponse).length();
+            }
+        }
+        return OPERATIONS / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static double outcomePath(FlatServiceDefaultProvider service, LocalDateTime[] rejected) {
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            ReservationOutcome outcome = service.tryReserve(FLAT_ID, slotAt(rejected[i % rejected.length]));
+            if (outcome.isRejected()) {
+                sink += ErrorResponseCache.bytes(outcome).length;
+            }
+        }
+        return OPERATIONS / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static ReserveSlot slotAt(LocalDateTime dateTime) {
+        ReserveSlot slot = new ReserveSlot();
+        slot.setDateTime(dateTime);
+        return slot;
+    }
+
+    private static class StackTraceRejection extends RuntimeException {
+        StackTraceRejection(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package net.imanbayli.flat.booking.cluster;
+
+import net.imanbayli.flat.booking.NodeProcess;
+import org.junit.Test;
+
+import java.net.URLEncoder;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ClusterNodesTest {
+    private static final int NODES = 3;
+    private static final int FLATS = 30;
+    private static final int LOAD_REQUESTS = 1_000;
+    private static final int LOAD_CLIENTS = 8;
+    private static final int VIRTUAL_NODES = 128;
+
+    @Test
+    public void test_cluster_When_RequestsHitAnyNode_Expect_OwnerServesConsistentState() throws Exception {
+        List<NodeProcess> nodes = startCluster(NODES);
+        try {
+            //given
+            String dateTime = LocalDate.now().plusDays(3).atTime(14, 20).toString();
+            List<String> decisions = new ArrayList<>();
+            //when
+            for (int i = 1; i <= FLATS; i++) {
+                NodeProcess entry = nodes.get(i % NODES);
+                HttpResponse<String> reserved = entry.post(reservePath(i), "{\"dateTime\":\"" + dateTime + "\"}");
+                assertEquals(reserved.body(), 200, reserved.statusCode());
+                String reservationId = reserved.body().replaceAll(".*\"id\":\"([^\"]+)\".*", "$1");
+                decisions.add("{\"flatId\":\"ID_GEN_FLAT_" + i + "\",\"reservationId\":\"" + reservationId
+                        + "\",\"decision\":\"APPROVE\"}");
+            }
+            HttpResponse<String> decided = nodes.get(0).post("/v1/flat/decisions", "[" + String.join(",", decisions) + "]");
+            //expect
+            for (int i = 1; i <= FLATS; i++) {
+                HttpResponse<String> conflict = nodes.get((i + 1) % NODES)
+                        .post(reservePath(i), "{\"dateTime\":\"" + dateTime + "\"}");
+                assertEquals(400, conflict.statusCode());
+                assertTrue(conflict.body().contains("already been occupied"));
+                assertEquals("[\"" + LocalDateTime.parse(dateTime) + ":00\"]", awaitView(nodes.get((i + 2) % NODES), i));
+            }
+            assertEquals(decided.body(), 200, decided.statusCode());
+            assertEquals(decided.body(), FLATS, decided.body().split("\"success\":true", -1).length - 1);
+            long forwarded = 0;
+            for (NodeProcess node : nodes) {
+                forwarded += forwardedRequests(node);
+            }
+            assertTrue(forwarded > 0);
+            String oddFlatId = "no such flat% \u00e9";
+            ConsistentHashRing ring = new ConsistentHashRing(
+                    nodes.stream().map(NodeProcess::address).collect(Collectors.toList()), VIRTUAL_NODES);
+            NodeProcess nonOwner = nodes.stream()
+                    .filter(node -> !node.address().equals(ring.ownerOf(oddFlatId)))
+                    .findFirst().get();
+            HttpResponse<String> odd = nonOwner.get("/v1/flat/" + URLEncoder.encode(oddFlatId, StandardCharsets.UTF_8)
+                    .replace("+", "%20") + "/view");
+            assertEquals(400, odd.statusCode());
+            assertTrue(odd.body(), odd.body().contains(oddFlatId + " not found"));
+        } finally {
+            close(nodes);
+        }
+    }
+
+    @Test
+    public void test_cluster_When_ReadLoadSpreadAcrossNodes_Expect_ThroughputScales() throws Exception {
+        double single;
+        List<NodeProcess> one = startCluster(1);
+        try {
+            single = throughput(one);
+        } finally {
+            close(one);
+        }
+        double cluster;
+        List<NodeProcess> nodes = startCluster(NODES);
+        try {
+            cluster = throughput(nodes);
+        } finally {
+            close(nodes);
+        }
+        System.out.printf("view throughput: 1 node %.0f req/s, %d nodes %.0f req/s%n", single, NODES, cluster);
+        if (Runtime.getRuntime().availableProcessors() >= NODES * 2) {
+            assertTrue(cluster > single);
+        }
+    }
+
+    private static List<NodeProcess> startCluster(int size) throws Exception {
+        List<Integer> ports = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            ports.add(NodeProcess.freePort());
+        }
+        String members = ports.stream().map(p -> "localhost:" + p).collect(Collectors.joining(","));
+        List<NodeProcess> nodes = new ArrayList<>();
+        try {
+            for (int port : ports) {
+                nodes.add(NodeProcess.start(port, Map.of(
+                        "cluster.nodes", members,
+                        "cluster.self", "localhost:" + port,
+                        "cluster.virtualNodes", String.valueOf(VIRTUAL_NODES),
+                        "dummy.flats", String.valueOf(FLATS))));
+            }
+        } catch (Exception e) {
+            close(nodes);
+            throw e;
+        }
+        return nodes;
+    }
+
+    /**
+     * Sends every request straight to the flat's owner, so the measurement covers the owned-only path and the
+     * nodes' share of the load rather than forwarding hops.
+     */
+    private static double throughput(List<NodeProcess> nodes) throws Exception {
+        Map<String, NodeProcess> nodesByAddress = nodes.stream()
+                .collect(Collectors.toMap(NodeProcess::address, node -> node));
+        ConsistentHashRing ring = new ConsistentHashRing(nodesByAddress.keySet(), VIRTUAL_NODES);
+        long forwardedBefore = 0;
+        for (NodeProcess node : nodes) {
+            forwardedBefore += forwardedRequests(node);
+        }
+        ExecutorService clients = Executors.newFixedThreadPool(LOAD_CLIENTS);
+        double throughput;
+        try {
+            runLoad(ring, nodesByAddress, clients, LOAD_REQUESTS / 10);
+            long start = System.nanoTime();
+            runLoad(ring, nodesByAddress, clients, LOAD_REQUESTS);
+            throughput = LOAD_REQUESTS / ((System.nanoTime() - start) / 1e9);
+        } finally {
+            clients.shutdownNow();
+        }
+        long forwardedAfter = 0;
+        for (NodeProcess node : nodes) {
+            forwardedAfter += forwardedRequests(node);
+        }
+        assertEquals(forwardedBefore, forwardedAfter);
+        return throughput;
+    }
+
+    private static void runLoad(ConsistentHashRing ring, Map<String, NodeProcess> nodesByAddress,
+                                ExecutorService clients, int requests) throws Exception {
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            String flatId = "ID_GEN_FLAT_" + (i % FLATS + 1);
+            NodeProcess owner = nodesByAddress.get(ring.ownerOf(flatId));
+            results.add(clients.submit(() -> owner.get("/v1/flat/" + flatId + "/view").statusCode()));
+        }
+        for (Future<Integer> result : results) {
+            assertEquals(200, (int) result.get());
+        }
+    }
+
+    private static String awaitView(NodeProcess node, int flat) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String body;
+        do {
+            body = node.get("/v1/flat/ID_GEN_FLAT_" + flat + "/view").body();
+        } while ("[]".equals(body) && System.currentTimeMillis() < deadline);
+        return body;
+    }
+
+    private static long forwardedRequests(NodeProcess node) throws Exception {
+        String metrics = node.get("/v1/metrics").body();
+        String key = "\"cluster.forwardedRequests\":";
+        if (!metrics.contains(key)) {
+            return 0;
+        }
+        int start = metrics.indexOf(key) + key.length();
+        int end = start;
+        while (end < metrics.length() && Character.isDigit(metrics.charAt(end))) {
+            end++;
+        }
+        return Long.parseLong(metrics.substring(start, end));
+    }
+
+    private static String reservePath(int flat) {
+        return "/v1/flat/ID_GEN_FLAT_" + flat + "/reserve";
+    }
+
+    private static void close(List<NodeProcess> nodes) throws InterruptedException {
+        for (NodeProcess node : nodes) {
+            node.close();
+        }
+    }
+}
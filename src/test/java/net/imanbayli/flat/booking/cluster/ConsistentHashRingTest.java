@@ -0,0 +1,62 @@
+package net.imanbayli.flat.booking.cluster;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class ConsistentHashRingTest {
+
+    @Test
+    public void test_ownerOf_When_SameKey_Expect_SameOwner() {
+        //given
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("a:1", "b:1", "c:1"), 128);
+        //when
+        String owner = ring.ownerOf("ID_FLAT_1");
+        //expect
+        assertEquals(owner, new ConsistentHashRing(List.of("c:1", "a:1", "b:1"), 128).ownerOf("ID_FLAT_1"));
+    }
+
+    @Test
+    public void test_ownerOf_When_ManyKeys_Expect_BalancedDistribution() {
+        //given
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("a:1", "b:1", "c:1"), 128);
+        Map<String, Integer> counts = new HashMap<>();
+        //when
+        for (int i = 0; i < 30_000; i++) {
+            counts.merge(ring.ownerOf("flat-" + i), 1, Integer::sum);
+        }
+        //expect
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertTrue("unbalanced: " + counts, count > 7_000 && count < 13_000));
+    }
+
+    @Test
+    public void test_ownerOf_When_NodeAdded_Expect_OnlyShareOfKeysMoved() {
+        //given
+        ConsistentHashRing before = new ConsistentHashRing(List.of("a:1", "b:1", "c:1"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("a:1", "b:1", "c:1", "d:1"), 128);
+        int moved = 0;
+        //when
+        for (int i = 0; i < 30_000; i++) {
+            String key = "flat-" + i;
+            String newOwner = after.ownerOf(key);
+            if (!before.ownerOf(key).equals(newOwner)) {
+                assertEquals("d:1", newOwner);
+                moved++;
+            }
+        }
+        //expect
+        assertTrue("moved " + moved, moved > 4_500 && moved < 10_500);
+    }
+
+    @Test
+    public void test_constructor_When_NoNodes_Expect_IllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing(List.of(), 128));
+    }
+}
@@ -0,0 +1,82 @@
+package net.imanbayli.flat.booking.codec;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.imanbayli.flat.booking.model.ErrorResponse;
+import net.imanbayli.flat.booking.model.ReservationResponse;
+import net.imanbayli.flat.booking.model.ReserveSlot;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+public class BookingJsonCodecTest {
+    private final BookingJsonCodec codec = new BookingJsonCodec();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void test_readReserveSlot_When_IsoDateTimeAndUnknownFields_Expect_SameAsObjectMapper() throws Exception {
+        //given
+        String json = "{\"dateTime\":\"2021-01-04T14:20\",\"extra\":{\"nested\":[1,2]},\"status\":\"PENDING\",\"tenantId\":\"t1\"}";
+        //when
+        ReserveSlot slot = codec.readReserveSlot(stream(json));
+        //expect
+        ReserveSlot expected = mapper.readerFor(ReserveSlot.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readValue(json);
+        assertEquals(expected.getDateTime(), slot.getDateTime());
+        assertEquals(ReserveSlot.Status.PENDING, slot.getStatus());
+        assertEquals("t1", slot.getTenantId());
+        assertNull(slot.getId());
+    }
+
+    @Test
+    public void test_readReserveSlot_When_ArrayDateTime_Expect_Parsed() throws Exception {
+        //when
+        ReserveSlot slot = codec.readReserveSlot(stream("{\"dateTime\":[2021,1,4,14,20,30]}"));
+        //expect
+        assertEquals(LocalDateTime.of(2021, 1, 4, 14, 20, 30), slot.getDateTime());
+    }
+
+    @Test
+    public void test_readReserveSlot_When_DateTimeMissing_Expect_NullDateTime() throws Exception {
+        //when
+        ReserveSlot slot = codec.readReserveSlot(stream("{}"));
+        //expect
+        assertNull(slot.getDateTime());
+    }
+
+    @Test
+    public void test_readReserveSlot_When_Malformed_Expect_JsonParseException() {
+        //expect
+        assertThrows(JsonParseException.class, () -> codec.readReserveSlot(stream("{\"dateTime\":\"tomorrow\"}")));
+        assertThrows(JsonParseException.class, () -> codec.readReserveSlot(stream("[]")));
+        assertThrows(JsonParseException.class, () -> codec.readReserveSlot(stream("{\"status\":\"LOST\"}")));
+    }
+
+    @Test
+    public void test_write_When_Called_Expect_SameBytesAsObjectMapper() throws Exception {
+        //given
+        ErrorResponse errorResponse = new ErrorResponse();
+        errorResponse.setMessage("You cannot book \"this\" timeslot");
+        List<String> dates = List.of("2021-01-04T14:20:00", "2021-01-04T14:40:00");
+        //expect
+        assertArrayEquals(mapper.writeValueAsBytes(new ReservationResponse("r1")), codec.writeReservationResponse(new ReservationResponse("r1")));
+        assertArrayEquals(mapper.writeValueAsBytes(errorResponse), codec.writeErrorResponse(errorResponse.getMessage()));
+        assertArrayEquals(mapper.writeValueAsBytes(dates), codec.writeDates(dates));
+        assertArrayEquals(mapper.writeValueAsBytes(List.of()), codec.writeDates(List.of()));
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
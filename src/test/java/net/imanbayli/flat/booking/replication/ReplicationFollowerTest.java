@@ -0,0 +1,163 @@
+package net.imanbayli.flat.booking.replication;
+
+import net.imanbayli.flat.booking.model.BookingRules;
+import net.imanbayli.flat.booking.model.Flat;
+import net.imanbayli.flat.booking.model.FlatEvent;
+import net.imanbayli.flat.booking.model.ReserveSlot;
+import net.imanbayli.flat.booking.repository.FlatRepository;
+import net.imanbayli.flat.booking.service.BookingRulesRegistry;
+import net.imanbayli.flat.booking.model.WaitlistEntry;
+import net.imanbayli.flat.booking.service.FlatEventListener;
+import net.imanbayli.flat.booking.service.WaitlistRegistry;
+import net.imanbayli.flat.booking.service.provider.WaitlistRegistryInMemoryProvider;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReplicationFollowerTest {
+    private FlatRepository flatRepositoryMock;
+    private FlatEventListener listenerMock;
+    private BookingRulesRegistry bookingRulesRegistryMock;
+    private WaitlistRegistry waitlistRegistry;
+    private ReplicationFollower follower;
+    private Flat flat;
+
+    @Before
+    public void setup() {
+        flatRepositoryMock = Mockito.mock(FlatRepository.class);
+        listenerMock = Mockito.mock(FlatEventListener.class);
+        bookingRulesRegistryMock = Mockito.mock(BookingRulesRegistry.class);
+        waitlistRegistry = new WaitlistRegistryInMemoryProvider();
+        follower = new ReplicationFollower(flatRepositoryMock, bookingRulesRegistryMock, waitlistRegistry, List.of(listenerMock));
+        flat = new Flat("f1", null, null);
+        Mockito.when(flatRepositoryMock.findById("f1")).thenReturn(Optional.of(flat));
+    }
+
+    @Test
+    public void test_append_When_BatchesArriveOutOfOrder_Expect_AppliedInLogOrder() {
+        //given
+        ReplicationBatch second = batch(2, List.of(entry(2, "r1", ReserveSlot.Status.APPROVED)));
+        ReplicationBatch first = batch(2, List.of(entry(1, "r1", ReserveSlot.Status.PENDING)));
+        //when
+        ReplicationAck afterSecond = follower.append(second);
+        ReplicationAck afterFirst = follower.append(first);
+        //expect
+        assertEquals(0, afterSecond.getLastApplied());
+        assertEquals(2, afterFirst.getLastApplied());
+        assertEquals(1, flat.getReserves().size());
+        assertEquals(ReserveSlot.Status.APPROVED, flat.getReserves().get(0).getStatus());
+        assertEquals(0, follower.getLagEntries());
+        Mockito.verify(listenerMock, Mockito.times(2)).onEvent(Mockito.any(FlatEvent.class));
+    }
+
+    @Test
+    public void test_append_When_BatchRedelivered_Expect_EntriesAppliedOnce() {
+        //given
+        ReplicationBatch batch = batch(1, List.of(entry(1, "r1", ReserveSlot.Status.PENDING)));
+        follower.append(batch);
+        //when
+        ReplicationAck ack = follower.append(batch);
+        //expect
+        assertEquals(1, ack.getLastApplied());
+        Mockito.verify(flatRepositoryMock, Mockito.times(1)).save(flat);
+    }
+
+    @Test
+    public void test_append_When_LeaderIsAhead_Expect_LagReported() {
+        //when
+        follower.append(batch(5, List.of(entry(1, "r1", ReserveSlot.Status.PENDING))));
+        //expect
+        assertEquals(4, follower.getLagEntries());
+    }
+
+    @Test
+    public void test_append_When_RulesChanged_Expect_RulesRegisteredOnFollower() {
+        //given
+        BookingRules rules = new BookingRules(8, 20, 30, 2, 14);
+        //when
+        ReplicationAck ack = follower.append(batch(1, List.of(new ReplicationEntry(1, FlatEvent.ofRules("f1", rules)))));
+        //expect
+        assertEquals(1, ack.getLastApplied());
+        Mockito.verify(bookingRulesRegistryMock).register("f1", rules);
+        Mockito.verify(flatRepositoryMock, Mockito.never()).save(Mockito.any(Flat.class));
+    }
+
+    @Test
+    public void test_append_When_WaitlistJoinedAndPromoted_Expect_FollowerWaitlistMirrored() {
+        //given
+        LocalDateTime dateTime = LocalDateTime.now().plusDays(3).withSecond(0).withNano(0);
+        WaitlistEntry first = new WaitlistEntry("w1", "t2", dateTime);
+        WaitlistEntry second = new WaitlistEntry("w2", "t3", dateTime);
+        //when
+        follower.append(batch(3, List.of(
+                new ReplicationEntry(1, FlatEvent.ofWaitlist("f1", FlatEvent.WaitlistChange.JOINED, first)),
+                new ReplicationEntry(2, FlatEvent.ofWaitlist("f1", FlatEvent.WaitlistChange.JOINED, second)),
+                new ReplicationEntry(3, FlatEvent.ofWaitlist("f1", FlatEvent.WaitlistChange.LEFT, first)))));
+        //expect
+        assertEquals(1, waitlistRegistry.getWaitingCount());
+        assertEquals("w2", waitlistRegistry.poll("f1", dateTime).get().getId());
+        Mockito.verify(flatRepositoryMock, Mockito.never()).save(Mockito.any(Flat.class));
+        Mockito.verify(listenerMock, Mockito.never()).onEvent(Mockito.any(FlatEvent.class));
+    }
+
+    @Test
+    public void test_append_When_BatchFromOlderEpoch_Expect_RefusedWithNewerEpoch() {
+        //given
+        follower.append(new ReplicationBatch(2, 0, 1, List.of(entry(1, "r1", ReserveSlot.Status.PENDING))));
+        //when
+        ReplicationAck ack = follower.append(new ReplicationBatch(1, 0, 2, List.of(entry(2, "r1", ReserveSlot.Status.APPROVED))));
+        //expect
+        assertEquals(2, ack.getEpoch());
+        assertEquals(1, ack.getLastApplied());
+        assertEquals(ReserveSlot.Status.PENDING, flat.getReserves().get(0).getStatus());
+    }
+
+    @Test
+    public void test_append_When_RestartedLeaderNumbersFromOne_Expect_ResyncRequiredAndNothingApplied() {
+        //given
+        follower.append(new ReplicationBatch(1, 0, 2, List.of(entry(1, "r1", ReserveSlot.Status.PENDING),
+                entry(2, "r1", ReserveSlot.Status.APPROVED))));
+        //when
+        ReplicationAck ack = follower.append(new ReplicationBatch(2, 0, 3, List.of(entry(1, "r2", ReserveSlot.Status.PENDING),
+                entry(2, "r2", ReserveSlot.Status.PENDING), entry(3, "r2", ReserveSlot.Status.PENDING))));
+        //expect
+        assertTrue(ack.isResyncRequired());
+        assertTrue(follower.isResyncRequired());
+        assertEquals(2, ack.getLastApplied());
+        assertEquals(1, flat.getReserves().size());
+        Mockito.verify(flatRepositoryMock, Mockito.times(2)).save(flat);
+    }
+
+    @Test
+    public void test_append_When_PromotedLeaderContinuesFromAppliedIndex_Expect_EntriesApplied() {
+        //given
+        follower.append(new ReplicationBatch(1, 0, 1, List.of(entry(1, "r1", ReserveSlot.Status.PENDING))));
+        //when
+        ReplicationAck ack = follower.append(new ReplicationBatch(2, 1, 2, List.of(entry(2, "r1", ReserveSlot.Status.APPROVED))));
+        //expect
+        assertFalse(ack.isResyncRequired());
+        assertEquals(2, ack.getLastApplied());
+        assertEquals(ReserveSlot.Status.APPROVED, flat.getReserves().get(0).getStatus());
+    }
+
+    private static ReplicationBatch batch(long leaderIndex, List<ReplicationEntry> entries) {
+        return new ReplicationBatch(1, 0, leaderIndex, entries);
+    }
+
+    private ReplicationEntry entry(long index, String reservationId, ReserveSlot.Status status) {
+        ReserveSlot slot = new ReserveSlot();
+        slot.setId(reservationId);
+        slot.setDateTime(LocalDateTime.of(2021, 1, 1, 16, 20));
+        slot.setStatus(status);
+        slot.setTenantId("t1");
+        return new ReplicationEntry(index, FlatEvent.of("f1", slot));
+    }
+}
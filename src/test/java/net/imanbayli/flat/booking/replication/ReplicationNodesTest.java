@@ -0,0 +1,154 @@
+package net.imanbayli.flat.booking.replication;
+
+import net.imanbayli.flat.booking.NodeProcess;
+import org.junit.Test;
+
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReplicationNodesTest {
+    private static final Pattern ID = Pattern.compile("\"id\":\"([^\"]+)\"");
+    private static final int RESERVATIONS = 10;
+    private static final String SECRET = "node-secret";
+
+    @Test
+    public void test_replication_When_LeaderBooks_Expect_FollowerServesReadsAndCanBePromoted() throws Exception {
+        int followerPort = NodeProcess.freePort();
+        try (NodeProcess follower = NodeProcess.start(followerPort, followerProperties());
+             NodeProcess leader = NodeProcess.start(NodeProcess.freePort(), leaderProperties(followerPort))) {
+            //given
+            awaitMetric(leader, "\"replication.leaseHeld\":true");
+            LocalDateTime first = LocalDate.now().plusDays(3).atTime(10, 0);
+            String approved = null;
+            for (int i = 0; i < RESERVATIONS; i++) {
+                HttpResponse<String> reserved = leader.post("/v1/flat/ID_FLAT_1/reserve", slot(first.plusMinutes(20L * i)));
+                assertEquals(reserved.body(), 200, reserved.statusCode());
+                if (i == 0) {
+                    approved = id(reserved.body());
+                }
+            }
+            assertEquals(200, leader.patch("/v1/flat/ID_FLAT_1/approve/" + approved).statusCode());
+            //when
+            awaitCaughtUp(follower, RESERVATIONS + 1);
+            //expect
+            assertEquals(leader.get("/v1/flat/ID_FLAT_1/view").body(), follower.get("/v1/flat/ID_FLAT_1/view").body());
+            assertEquals(503, follower.post("/v1/flat/ID_FLAT_1/reserve", slot(first.plusHours(5))).statusCode());
+
+            assertEquals(403, follower.post("/v1/replication/promote", "").statusCode());
+            assertEquals(409, promote(follower).statusCode());
+            leader.close();
+            long deadline = System.currentTimeMillis() + 10_000;
+            HttpResponse<String> promoted;
+            do {
+                Thread.sleep(100);
+                promoted = promote(follower);
+            } while (promoted.statusCode() != 200 && System.currentTimeMillis() < deadline);
+            assertEquals(promoted.body(), 200, promoted.statusCode());
+            HttpResponse<String> conflict = follower.post("/v1/flat/ID_FLAT_1/reserve", slot(first));
+            assertEquals(400, conflict.statusCode());
+            assertTrue(conflict.body().contains("already been occupied"));
+            assertEquals(200, follower.post("/v1/flat/ID_FLAT_1/reserve", slot(first.plusHours(5))).statusCode());
+        }
+    }
+
+    @Test
+    public void test_replication_When_FollowerRestartsBehindRetainedLog_Expect_LeaderFlagsResync() throws Exception {
+        int followerPort = NodeProcess.freePort();
+        NodeProcess follower = NodeProcess.start(followerPort, followerProperties());
+        try (NodeProcess leader = NodeProcess.start(NodeProcess.freePort(), leaderProperties(followerPort))) {
+            //given
+            awaitMetric(leader, "\"replication.leaseHeld\":true");
+            LocalDateTime first = LocalDate.now().plusDays(3).atTime(10, 0);
+            assertEquals(200, leader.post("/v1/flat/ID_FLAT_1/reserve", slot(first)).statusCode());
+            awaitCaughtUp(follower, 1);
+            //when
+            follower.close();
+            follower = NodeProcess.start(followerPort, followerProperties());
+            //expect
+            awaitMetric(leader, "\"replication.follower.localhost:" + followerPort + ".lagEntries\":-1");
+            awaitMetric(leader, "\"replication.leaseHeld\":false");
+            assertEquals(503, leader.post("/v1/flat/ID_FLAT_1/reserve", slot(first.plusMinutes(20))).statusCode());
+        } finally {
+            follower.close();
+        }
+    }
+
+    @Test
+    public void test_replication_When_LeaderRestartsWithEmptyLog_Expect_FollowerRefusesToDiverge() throws Exception {
+        int followerPort = NodeProcess.freePort();
+        try (NodeProcess follower = NodeProcess.start(followerPort, followerProperties())) {
+            //given
+            LocalDateTime first = LocalDate.now().plusDays(3).atTime(10, 0);
+            try (NodeProcess leader = NodeProcess.start(NodeProcess.freePort(), leaderProperties(followerPort))) {
+                awaitMetric(leader, "\"replication.leaseHeld\":true");
+                assertEquals(200, leader.post("/v1/flat/ID_FLAT_1/reserve", slot(first)).statusCode());
+                assertEquals(200, leader.post("/v1/flat/ID_FLAT_1/reserve", slot(first.plusMinutes(20))).statusCode());
+                awaitCaughtUp(follower, 2);
+            }
+            String view = follower.get("/v1/flat/ID_FLAT_1/view").body();
+            //when
+            try (NodeProcess leader = NodeProcess.start(NodeProcess.freePort(), leaderProperties(followerPort))) {
+                //expect
+                awaitMetric(follower, "\"replication.resyncRequired\":true");
+                awaitMetric(leader, "\"replication.follower.localhost:" + followerPort + ".lagEntries\":-1");
+                assertTrue(leader.get("/v1/metrics").body().contains("\"replication.leaseHeld\":false"));
+                assertEquals(503, leader.post("/v1/flat/ID_FLAT_1/reserve", slot(first.plusHours(1))).statusCode());
+                assertEquals(view, follower.get("/v1/flat/ID_FLAT_1/view").body());
+                assertEquals(409, promote(follower).statusCode());
+            }
+        }
+    }
+
+    private static Map<String, String> followerProperties() {
+        return Map.of("replication.role", "follower", "replication.secret", SECRET);
+    }
+
+    private static Map<String, String> leaderProperties(int followerPort) {
+        return Map.of("replication.followers", "localhost:" + followerPort, "replication.secret", SECRET);
+    }
+
+    private static HttpResponse<String> promote(NodeProcess follower) throws Exception {
+        return follower.post("/v1/replication/promote", "", ReplicationConfig.SECRET_HEADER, SECRET);
+    }
+
+    private static void awaitMetric(NodeProcess node, String metric) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        String metrics;
+        do {
+            Thread.sleep(50);
+            metrics = node.get("/v1/metrics").body();
+        } while (!metrics.contains(metric) && System.currentTimeMillis() < deadline);
+        assertTrue(metrics, metrics.contains(metric));
+    }
+
+    private static void awaitCaughtUp(NodeProcess follower, long index) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        String metrics;
+        do {
+            Thread.sleep(50);
+            metrics = follower.get("/v1/metrics").body();
+        } while (!(metrics.contains("\"replication.lastApplied\":" + index + ",")
+                && metrics.contains("\"replication.lagEntries\":0,")
+                && metrics.contains("\"projection.pendingEvents\":0,"))
+                && System.currentTimeMillis() < deadline);
+        assertTrue(metrics, metrics.contains("\"replication.lastApplied\":" + index + ","));
+        assertTrue(metrics, metrics.contains("\"replication.lagMillis\":0"));
+    }
+
+    private static String slot(LocalDateTime dateTime) {
+        return "{\"dateTime\":\"" + dateTime + "\"}";
+    }
+
+    private static String id(String body) {
+        Matcher matcher = ID.matcher(body);
+        assertTrue(body, matcher.find());
+        return matcher.group(1);
+    }
+}
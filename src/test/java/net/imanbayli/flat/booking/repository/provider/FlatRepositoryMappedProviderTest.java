@@ -0,0 +1,208 @@
+package net.imanbayli.flat.booking.repository.provider;
+
+import net.imanbayli.flat.booking.model.Flat;
+import net.imanbayli.flat.booking.model.Landlord;
+import net.imanbayli.flat.booking.model.ReserveSlot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+public class FlatRepositoryMappedProviderTest {
+    private Path file;
+    private FlatRepositoryMappedProvider repository;
+
+    @Before
+    public void setup() throws Exception {
+        file = Files.createTempFile("flats-", ".db");
+        Files.delete(file);
+        repository = new FlatRepositoryMappedProvider(file, 1_000, 8);
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        repository.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void test_findById_When_FlatSaved_Expect_EqualView() {
+        //given
+        Flat flat = flat("f1");
+        //when
+        repository.save(flat);
+        Flat found = repository.findById("f1").get();
+        //expect
+        assertEquals("Cozy apartment", found.getShortDescription());
+        assertEquals("1 High Street, London", found.getAddress());
+        assertEquals("L1", found.getLandlord().getId());
+        assertEquals("Murad", found.getLandlord().getFirstName());
+        assertEquals(2, found.getReserves().size());
+        ReserveSlot slot = found.getReserves().get(1);
+        assertEquals("r2", slot.getId());
+        assertEquals("t2", slot.getTenantId());
+        assertEquals(LocalDateTime.of(2021, 1, 4, 14, 40), slot.getDateTime());
+        assertEquals(ReserveSlot.Status.CANCELED, slot.getStatus());
+        assertFalse(repository.findById("f2").isPresent());
+    }
+
+    @Test
+    public void test_save_When_FlatUpdated_Expect_RecordOverwritten() {
+        //given
+        Flat flat = flat("f1");
+        repository.save(flat);
+        //when
+        flat.getReserves().remove(1);
+        flat.getReserves().get(0).setStatus(ReserveSlot.Status.APPROVED);
+        flat.setLandlord(null);
+        repository.save(flat);
+        //expect
+        Flat found = repository.findById("f1").get();
+        assertEquals(1, found.getReserves().size());
+        assertEquals(ReserveSlot.Status.APPROVED, found.getReserves().get(0).getStatus());
+        assertNull(found.getLandlord());
+        assertEquals(1, repository.size());
+    }
+
+    @Test
+    public void test_findById_When_FileReopened_Expect_FlatsRestored() throws Exception {
+        //given
+        for (int i = 0; i < 500; i++) {
+            repository.save(flat("f" + i));
+        }
+        repository.close();
+        //when
+        repository = new FlatRepositoryMappedProvider(file, 1, 1);
+        //expect
+        assertEquals(500, repository.size());
+        assertEquals(500, repository.findAll().size());
+        assertEquals("r1", repository.findById("f499").get().getReserves().get(0).getId());
+        repository.save(flat("f500"));
+        assertEquals(501, repository.size());
+    }
+
+    @Test
+    public void test_save_When_TooManyUpcomingReservations_Expect_IllegalStateException() {
+        //given
+        Flat flat = flat("f1");
+        for (int i = 0; i < 9; i++) {
+            flat.getReserves().add(slot("x" + i, LocalDateTime.now().plusDays(3).plusMinutes(20L * i), ReserveSlot.Status.PENDING));
+        }
+        //expect
+        assertThrows(IllegalStateException.class, () -> repository.save(flat));
+    }
+
+    @Test
+    public void test_save_When_RecordFullAndCompactionOff_Expect_IllegalStateExceptionAndHistoryKept() {
+        //given
+        Flat flat = flat("f1");
+        repository.save(flat);
+        for (int i = 0; i < 7; i++) {
+            flat.getReserves().add(slot("c" + i, LocalDateTime.now().plusDays(3).plusMinutes(20L * i), ReserveSlot.Status.CANCELED));
+        }
+        //expect
+        assertThrows(IllegalStateException.class, () -> repository.save(flat));
+        assertEquals(2, repository.findById("f1").get().getReserves().size());
+    }
+
+    @Test
+    public void test_save_When_RecordFullOfPastAndCancelledSlotsAndCompactionOn_Expect_ThoseSlotsCompacted() throws Exception {
+        //given
+        repository.close();
+        Files.delete(file);
+        repository = new FlatRepositoryMappedProvider(file, 1_000, 8, true);
+        Flat flat = flat("f1");
+        LocalDateTime upcoming = LocalDateTime.now().plusDays(3).withNano(0);
+        for (int i = 0; i < 6; i++) {
+            flat.getReserves().add(slot("c" + i, upcoming.plusMinutes(20L * i), ReserveSlot.Status.CANCELED));
+        }
+        flat.getReserves().add(slot("u1", upcoming, ReserveSlot.Status.APPROVED));
+        //when
+        repository.save(flat);
+        //expect
+        List<ReserveSlot> stored = repository.findById("f1").get().getReserves();
+        assertEquals(1, stored.size());
+        assertEquals("u1", stored.get(0).getId());
+        assertEquals(upcoming, stored.get(0).getDateTime());
+    }
+
+    @Test(timeout = 10_000)
+    public void test_findById_When_SaveRejectedForTooLongField_Expect_PreviousRecordReadable() {
+        //given
+        Flat flat = flat("f1");
+        repository.save(flat);
+        flat.getReserves().get(0).setTenantId("tenant-" + "x".repeat(47));
+        //when
+        assertThrows(IllegalArgumentException.class, () -> repository.save(flat));
+        //expect
+        Flat found = repository.findById("f1").get();
+        assertNull(found.getReserves().get(0).getTenantId());
+        assertEquals(2, found.getReserves().size());
+    }
+
+    @Test(timeout = 10_000)
+    public void test_save_When_InsertRejectedForTooLongFlatId_Expect_NextInsertReadable() {
+        //given
+        Flat tooLong = flat("f".repeat(65));
+        //when
+        assertThrows(IllegalArgumentException.class, () -> repository.save(tooLong));
+        repository.save(flat("f2"));
+        //expect
+        assertEquals(1, repository.size());
+        assertEquals("f2", repository.findById("f2").get().getId());
+        assertEquals(1, repository.findAll().size());
+    }
+
+    @Test
+    public void test_save_When_ConcurrentInsertsAndUpdates_Expect_EveryFlatOnce() throws Exception {
+        //given
+        ExecutorService writers = Executors.newFixedThreadPool(4);
+        List<Future<?>> results = new ArrayList<>();
+        //when
+        for (int writer = 0; writer < 4; writer++) {
+            results.add(writers.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    repository.save(flat("f" + i));
+                    repository.findById("f" + (i / 2)).get();
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        writers.shutdown();
+        //expect
+        assertEquals(200, repository.size());
+        assertEquals(2, repository.findById("f199").get().getReserves().size());
+    }
+
+    private static Flat flat(String id) {
+        Flat flat = new Flat(id, "Cozy apartment", "1 High Street, London");
+        flat.setLandlord(new Landlord("L1", "Murad", "Imanbayli"));
+        flat.getReserves().add(slot("r1", LocalDateTime.of(2021, 1, 4, 14, 20), ReserveSlot.Status.PENDING));
+        flat.getReserves().add(slot("r2", LocalDateTime.of(2021, 1, 4, 14, 40), ReserveSlot.Status.CANCELED));
+        flat.getReserves().get(1).setTenantId("t2");
+        return flat;
+    }
+
+    private static ReserveSlot slot(String id, LocalDateTime dateTime, ReserveSlot.Status status) {
+        ReserveSlot slot = new ReserveSlot();
+        slot.setId(id);
+        slot.setDateTime(dateTime);
+        slot.setStatus(status);
+        return slot;
+    }
+}
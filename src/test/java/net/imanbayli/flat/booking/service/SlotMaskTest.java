@@ -0,0 +1,59 @@
+package net.imanbayli.flat.booking.service;
+
+import net.imanbayli.flat.booking.model.BookingRules;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SlotMaskTest {
+    private static final LocalDate TODAY = LocalDate.of(2021, 1, 4);
+    private static final LocalDateTime NOW = TODAY.atTime(9, 0);
+
+    @Test
+    public void test_rejectionFor_When_SlotValid_Expect_NoRejection() {
+        //given
+        SlotMask mask = SlotMask.compile(BookingRules.defaults(), TODAY);
+        //expect
+        assertNull(mask.rejectionFor(TODAY.plusDays(2).atTime(19, 40), NOW));
+        assertNull(mask.rejectionFor(TODAY.plusDays(1).atTime(10, 0, 30), NOW));
+    }
+
+    @Test
+    public void test_rejectionFor_When_SlotOutsideWindow_Expect_WindowRejection() {
+        //given
+        SlotMask mask = SlotMask.compile(BookingRules.defaults(), TODAY);
+        //expect
+        assertEquals("You cannot book time in past", mask.rejectionFor(NOW.minusMinutes(1), NOW));
+        assertEquals("You cannot book appointment for time less than 24 hours", mask.rejectionFor(NOW.plusHours(23), NOW));
+        assertEquals("You can only book for the next 7 days", mask.rejectionFor(NOW.plusDays(7), NOW));
+    }
+
+    @Test
+    public void test_rejectionFor_When_BlackoutDate_Expect_DayRejection() {
+        //given
+        BookingRules rules = BookingRules.defaults();
+        rules.getBlackoutDates().add(TODAY.plusDays(2));
+        SlotMask mask = SlotMask.compile(rules, TODAY);
+        //expect
+        assertEquals("You cannot book a timeslot on this day", mask.rejectionFor(TODAY.plusDays(2).atTime(12, 0), NOW));
+        assertNull(mask.rejectionFor(TODAY.plusDays(3).atTime(12, 0), NOW));
+    }
+
+    @Test
+    public void test_bookableSlots_When_HourlySlots_Expect_EverySlotInWindow() {
+        //given
+        SlotMask mask = SlotMask.compile(new BookingRules(10, 11, 60, 24, 2), TODAY);
+        //when
+        List<LocalDateTime> slots = mask.bookableSlots(NOW);
+        //expect
+        assertEquals(List.of(TODAY.plusDays(1).atTime(10, 0), TODAY.plusDays(1).atTime(11, 0)), slots);
+        slots.forEach(slot -> assertNull(mask.rejectionFor(slot, NOW)));
+        assertTrue(mask.rejectionFor(TODAY.plusDays(2).atTime(10, 0), NOW) != null);
+    }
+}
@@ -0,0 +1,104 @@
+package net.imanbayli.flat.booking.service.provider;
+
+import net.imanbayli.flat.booking.model.Flat;
+import net.imanbayli.flat.booking.model.Landlord;
+import net.imanbayli.flat.booking.model.OccupancyReport;
+import net.imanbayli.flat.booking.model.ReserveSlot;
+import net.imanbayli.flat.booking.repository.FlatRepository;
+import net.imanbayli.flat.booking.service.BookingRulesRegistry;
+import net.imanbayli.flat.booking.service.NotificationService;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+public class AnalyticsServiceForkJoinProviderTest {
+    private static final int FLATS = 200;
+
+    private FlatRepository flatRepositoryMock;
+    private BookingRulesRegistry bookingRulesRegistry;
+    private AnalyticsServiceForkJoinProvider analytics;
+
+    @Before
+    public void setup() {
+        Map<String, Flat> flats = new ConcurrentHashMap<>();
+        flatRepositoryMock = Mockito.mock(FlatRepository.class);
+        Mockito.when(flatRepositoryMock.findAll()).thenAnswer(invocation -> new ArrayList<>(flats.values()));
+        Mockito.when(flatRepositoryMock.findById(Mockito.anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(flats.get((String) invocation.getArguments()[0])));
+        LocalDateTime upcoming = LocalDate.now().plusDays(3).atTime(14, 20);
+        for (int i = 0; i < FLATS; i++) {
+            Flat flat = new Flat("f" + i, "flat " + i, i % 2 == 0 ? "1 High Street, London" : "Paris");
+            flat.setLandlord(Landlord.of("L1"));
+            flat.getReserves().add(slot(upcoming, ReserveSlot.Status.APPROVED));
+            flat.getReserves().add(slot(LocalDateTime.of(2021, 1, 1, 10, 0), ReserveSlot.Status.CANCELED));
+            flats.put(flat.getId(), flat);
+        }
+        bookingRulesRegistry = new BookingRulesRegistryInMemoryProvider();
+        FlatServiceDefaultProvider flatService = new FlatServiceDefaultProvider(flatRepositoryMock,
+                Mockito.mock(NotificationService.class), null, bookingRulesRegistry);
+        analytics = new AnalyticsServiceForkJoinProvider(flatRepositoryMock, flatService, bookingRulesRegistry, new ForkJoinPool(4));
+    }
+
+    @Test
+    public void test_occupancyReport_When_FlatsSplitAcrossPartitions_Expect_MergedTotals() {
+        //given
+        double oneSlotRate = 1.0 / bookingRulesRegistry.maskFor("f0").bookableSlots(LocalDateTime.now()).size();
+        //when
+        OccupancyReport report = analytics.occupancyReport();
+        //expect
+        assertEquals(FLATS, report.getFlats());
+        assertEquals(FLATS * 2, report.getReservations());
+        assertEquals(FLATS, report.getOccupancyByFlat().size());
+        assertEquals(oneSlotRate, report.getOccupancyByFlat().get("f7"), 1e-9);
+        assertEquals(List.of("London", "Paris"), new ArrayList<>(report.getOccupancyByCity().keySet()));
+        assertEquals(oneSlotRate, report.getOccupancyByCity().get("London"), 1e-9);
+        assertEquals(FLATS * 2, report.getLandlords().get("L1").getReservations());
+        assertEquals(0.5, report.getLandlords().get("L1").getApprovalRatio(), 1e-9);
+        assertEquals(0.5, report.getLandlords().get("L1").getCancelRatio(), 1e-9);
+        assertEquals(0.0, report.getLandlords().get("L1").getRejectionRatio(), 1e-9);
+        assertEquals(FLATS, report.getReservationsByHour()[14]);
+        assertEquals(List.of(10, 14), report.getPeakHours());
+    }
+
+    @Test
+    public void test_occupancyReport_When_SlotLacksTimeOrStatus_Expect_CountedAsIncomplete() {
+        //given
+        Flat flat = flatRepositoryMock.findById("f3").get();
+        flat.getReserves().add(slot(null, ReserveSlot.Status.APPROVED));
+        flat.getReserves().add(slot(LocalDateTime.of(2021, 1, 1, 12, 0), null));
+        //when
+        OccupancyReport report = analytics.occupancyReport();
+        //expect
+        assertEquals(FLATS, report.getFlats());
+        assertEquals(FLATS * 2, report.getReservations());
+        assertEquals(2, report.getIncompleteReservations());
+        assertEquals(0, report.getReservationsByHour()[12]);
+        assertEquals(FLATS * 2, report.getLandlords().get("L1").getReservations());
+    }
+
+    @Test
+    public void test_cityOf_When_AddressHasStreet_Expect_LastComponent() {
+        //expect
+        assertEquals("London", AnalyticsServiceForkJoinProvider.cityOf("1 High Street, London"));
+        assertEquals("London", AnalyticsServiceForkJoinProvider.cityOf("London"));
+        assertEquals("unknown", AnalyticsServiceForkJoinProvider.cityOf(null));
+    }
+
+    private static ReserveSlot slot(LocalDateTime dateTime, ReserveSlot.Status status) {
+        ReserveSlot slot = new ReserveSlot();
+        slot.setDateTime(dateTime);
+        slot.setStatus(status);
+        return slot;
+    }
+}
@@ -3,25 +3,46 @@ package net.imanbayli.flat.booking.service.provider;
 import net.imanbayli.flat.booking.exception.FlatNotFoundException;
 import net.imanbayli.flat.booking.exception.IllegalTimeslotException;
 import net.imanbayli.flat.booking.exception.ReservationNotFoundException;
+import net.imanbayli.flat.booking.model.BookingRules;
+import net.imanbayli.flat.booking.model.DecisionRequest;
+import net.imanbayli.flat.booking.model.DecisionResult;
 import net.imanbayli.flat.booking.model.Flat;
+import net.imanbayli.flat.booking.model.FlatEvent;
+import net.imanbayli.flat.booking.model.FlatOccupancy;
 import net.imanbayli.flat.booking.model.Landlord;
+import net.imanbayli.flat.booking.model.Notification;
+import net.imanbayli.flat.booking.model.ReservationOutcome;
 import net.imanbayli.flat.booking.model.ReservationResponse;
 import net.imanbayli.flat.booking.model.ReserveSlot;
+import net.imanbayli.flat.booking.model.Tenant;
+import net.imanbayli.flat.booking.model.WaitlistEntry;
+import net.imanbayli.flat.booking.model.WaitlistResponse;
 import net.imanbayli.flat.booking.repository.FlatRepository;
+import net.imanbayli.flat.booking.service.BookingRulesRegistry;
+import net.imanbayli.flat.booking.service.FlatEventListener;
 import net.imanbayli.flat.booking.service.NotificationService;
+import net.imanbayli.flat.booking.service.OccupancyProjection;
+import net.imanbayli.flat.booking.service.TenantContext;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
 
 public class FlatServiceDefaultProviderTest {
@@ -34,6 +55,12 @@ public class FlatServiceDefaultProviderTest {
         flatRepositoryMock = Mockito.mock(FlatRepository.class);
         notificationServiceMock = Mockito.mock(NotificationService.class);
         service = new FlatServiceDefaultProvider(flatRepositoryMock, notificationServiceMock);
+        TenantContext.set(Tenant.of("tenantUserId"));
+    }
+
+    @After
+    public void cleanup() {
+        TenantContext.clear();
     }
 
     @Test
@@ -137,7 +164,7 @@ public class FlatServiceDefaultProviderTest {
         ReserveSlot slot = flatCaptor.getValue().getReserves().get(0);
         assertEquals(ReserveSlot.Status.PENDING, slot.getStatus());
         assertEquals(reserveSlot.getDateTime().withSecond(0).withNano(0), slot.getDateTime());
-        Mockito.verify(notificationServiceMock).send(flat.getLandlord().getId(), "the reservation for your flat is pending, please approve or reject it");
+        Mockito.verify(notificationServiceMock).send(flat.getLandlord().getId(), flatId, "the reservation for your flat is pending, please approve or reject it");
     }
 
     @Test
@@ -265,7 +292,7 @@ public class FlatServiceDefaultProviderTest {
         ReservationResponse response = service.approve(flatId, reservationId);
         //expect
         assertNotNull(response.getId());
-        Mockito.verify(notificationServiceMock).send("t1", "Your reservation has been approved");
+        Mockito.verify(notificationServiceMock).send("t1", flatId, "Your reservation has been approved");
         ArgumentCaptor<Flat> flatCaptor = ArgumentCaptor.forClass(Flat.class);
         Mockito.verify(flatRepositoryMock).save(flatCaptor.capture());
         assertEquals(flatCaptor.getValue().getReserves().get(0).getStatus(), ReserveSlot.Status.APPROVED);
@@ -282,19 +309,34 @@ public class FlatServiceDefaultProviderTest {
         slot.setDateTime(LocalDateTime.of(2021, 01, 01, 16, 20));
         slot.setStatus(ReserveSlot.Status.PENDING);
         slot.setId(reservationId);
-        slot.setTenantId("t1");
+        slot.setTenantId("tenantUserId");
         flat.getReserves().add(slot);
         Mockito.when(flatRepositoryMock.findById(flatId)).thenReturn(Optional.of(flat));
         //when
         ReservationResponse response = service.cancel(flatId, reservationId);
         //expect
         assertNotNull(response.getId());
-        Mockito.verify(notificationServiceMock).send("L1", "Your reservation has been cancelled");
+        Mockito.verify(notificationServiceMock).send("L1", flatId, "Your reservation has been cancelled");
         ArgumentCaptor<Flat> flatCaptor = ArgumentCaptor.forClass(Flat.class);
         Mockito.verify(flatRepositoryMock).save(flatCaptor.capture());
         assertEquals(flatCaptor.getValue().getReserves().get(0).getStatus(), ReserveSlot.Status.CANCELED);
     }
 
+    @Test
+    public void test_cancel_When_ReservationBelongsToAnotherTenant_Expect_ReservationNotFoundException(){
+        //given
+        String flatId = "f1";
+        LocalDateTime dateTime = LocalDate.now().plusDays(3).atTime(14, 20);
+        Flat flat = new Flat();
+        flat.setLandlord(new Landlord("L1", null, null));
+        flat.getReserves().add(slotAt(dateTime, ReserveSlot.Status.APPROVED, "r1", "t1"));
+        Mockito.when(flatRepositoryMock.findById(flatId)).thenReturn(Optional.of(flat));
+        //expect
+        assertThrows(ReservationNotFoundException.class, () -> service.cancel(flatId, "r1"));
+        assertEquals(ReserveSlot.Status.APPROVED, flat.getReserves().get(0).getStatus());
+        Mockito.verify(flatRepositoryMock, Mockito.never()).save(Mockito.any(Flat.class));
+    }
+
     @Test
     public void test_reject_When_ReservationExist_Expect_reservationShouldReject(){
         //given
@@ -313,10 +355,427 @@ public class FlatServiceDefaultProviderTest {
         ReservationResponse response = service.reject(flatId, reservationId);
         //expect
         assertNotNull(response.getId());
-        Mockito.verify(notificationServiceMock).send("t1", "Your reservation has been rejected");
+        Mockito.verify(notificationServiceMock).send("t1", flatId, "Your reservation has been rejected");
         ArgumentCaptor<Flat> flatCaptor = ArgumentCaptor.forClass(Flat.class);
         Mockito.verify(flatRepositoryMock).save(flatCaptor.capture());
         assertEquals(flatCaptor.getValue().getReserves().get(0).getStatus(), ReserveSlot.Status.REJECTED);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void test_viewOccupiedDates_When_ProjectionHasFlat_Expect_RepositoryNotQueried(){
+        //given
+        String flatId = "f1";
+        OccupancyProjection projectionMock = Mockito.mock(OccupancyProjection.class);
+        Mockito.when(projectionMock.find(flatId))
+                .thenReturn(Optional.of(new FlatOccupancy(flatId, List.of("2021-01-01T16:20:00"), new byte[0], Set.of())));
+        service = new FlatServiceDefaultProvider(flatRepositoryMock, notificationServiceMock, projectionMock);
+        //when
+        List<String> dates = service.viewOccupiedDates(flatId);
+        //expect
+        assertEquals(List.of("2021-01-01T16:20:00"), dates);
+        Mockito.verify(flatRepositoryMock, Mockito.never()).findById(flatId);
+    }
+
+    @Test
+    public void test_reserve_When_BookingTimeIsValid_Expect_PendingEventPublished(){
+        //given
+        String flatId = "f1";
+        ReserveSlot reserveSlot = new ReserveSlot();
+        reserveSlot.setDateTime(LocalDateTime.now().plusDays(3).withMinute(20).withHour(14));
+        Flat flat = new Flat();
+        flat.setId(flatId);
+        flat.setLandlord(Landlord.of(UUID.randomUUID().toString()));
+        Mockito.when(flatRepositoryMock.findById(flatId)).thenReturn(Optional.of(flat));
+        FlatEventListener listenerMock = Mockito.mock(FlatEventListener.class);
+        service.addEventListener(listenerMock);
+        //when
+        ReservationResponse response = service.reserve(flatId, reserveSlot);
+        //expect
+        ArgumentCaptor<FlatEvent> eventCaptor = ArgumentCaptor.forClass(FlatEvent.class);
+        Mockito.verify(listenerMock).onEvent(eventCaptor.capture());
+        assertEquals(flatId, eventCaptor.getValue().getFlatId());
+        assertEquals(response.getId(), eventCaptor.getValue().getReservationId());
+        assertEquals(ReserveSlot.Status.PENDING, eventCaptor.getValue().getStatus());
+    }
+
+    @Test
+    public void test_reserve_When_FlatHasOwnRules_Expect_FlatRulesApplied(){
+        //given
+        String flatId = "f1";
+        BookingRules rules = new BookingRules(12, 16, 30, 24, 7);
+        rules.getClosedDays().add(LocalDate.now().plusDays(3).getDayOfWeek());
+        BookingRulesRegistry registry = new BookingRulesRegistryInMemoryProvider();
+        registry.register(flatId, rules);
+        service = new FlatServiceDefaultProvider(flatRepositoryMock, notificationServiceMock, null, registry);
+        ReserveSlot twentyMinuteSlot = new ReserveSlot();
+        twentyMinuteSlot.setDateTime(LocalDateTime.now().plusDays(4).withMinute(20).withHour(14));
+        ReserveSlot earlySlot = new ReserveSlot();
+        earlySlot.setDateTime(LocalDateTime.now().plusDays(4).withMinute(30).withHour(10));
+        ReserveSlot closedDaySlot = new ReserveSlot();
+        closedDaySlot.setDateTime(LocalDateTime.now().plusDays(3).withMinute(30).withHour(14));
+        //when
+        IllegalTimeslotException slotException = assertThrows(IllegalTimeslotException.class, () -> service.reserve(flatId, twentyMinuteSlot));
+        IllegalTimeslotException hourException = assertThrows(IllegalTimeslotException.class, () -> service.reserve(flatId, earlySlot));
+        IllegalTimeslotException dayException = assertThrows(IllegalTimeslotException.class, () -> service.reserve(flatId, closedDaySlot));
+        //expect
+        assertEquals("You can only book a timeslot of 30 minutes", slotException.getMessage());
+        assertEquals("You can only book a timeslot between 12:00 and 17:00", hourException.getMessage());
+        assertEquals("You cannot book a timeslot on this day", dayException.getMessage());
+    }
+
+    @Test
+    public void test_updateBookingRules_When_WindowTooFarAhead_Expect_IllegalArgumentException(){
+        //given
+        Mockito.when(flatRepositoryMock.findById("f1")).thenReturn(Optional.of(new Flat()));
+        BookingRules rules = new BookingRules(10, 19, 20, 24, Integer.MAX_VALUE);
+        //expect
+        assertThrows(IllegalArgumentException.class, () -> service.updateBookingRules("f1", rules));
+    }
+
+    @Test
+    public void test_updateBookingRules_When_RulesValid_Expect_RulesChangePublished(){
+        //given
+        FlatEventListener listenerMock = Mockito.mock(FlatEventListener.class);
+        service.addEventListener(listenerMock);
+        Mockito.when(flatRepositoryMock.findById("f1")).thenReturn(Optional.of(new Flat()));
+        BookingRules rules = new BookingRules(12, 16, 30, 24, 7);
+        //when
+        service.updateBookingRules("f1", rules);
+        //expect
+        ArgumentCaptor<FlatEvent> eventCaptor = ArgumentCaptor.forClass(FlatEvent.class);
+        Mockito.verify(listenerMock).onEvent(eventCaptor.capture());
+        assertTrue(eventCaptor.getValue().isRulesChange());
+        assertEquals(rules, eventCaptor.getValue().getRules());
+    }
+
+    @Test
+    public void test_viewFreeSlots_When_SlotIsReserved_Expect_SlotNotListed(){
+        //given
+        String flatId = "f1";
+        LocalDateTime reserved = LocalDate.now().plusDays(3).atTime(14, 20);
+        Flat flat = new Flat();
+        ReserveSlot slot = new ReserveSlot();
+        slot.setDateTime(reserved);
+        slot.setStatus(ReserveSlot.Status.PENDING);
+        flat.getReserves().add(slot);
+        Mockito.when(flatRepositoryMock.findById(flatId)).thenReturn(Optional.of(flat));
+        //when
+        List<String> free = service.viewFreeSlots(flatId);
+        //expect
+        assertFalse(free.contains(reserved.format(DateTimeFormatter.ISO_DATE_TIME)));
+        assertTrue(free.contains(reserved.plusMinutes(20).format(DateTimeFormatter.ISO_DATE_TIME)));
+        assertTrue(free.size() > 100);
+    }
+
+    @Test
+    public void test_reserve_When_CancelledAndApprovedSlotsAtSameTime_Expect_IllegalTimeslotException(){
+        //given
+        String flatId = "f1";
+        LocalDateTime dateTime = LocalDate.now().plusDays(3).atTime(14, 20);
+        Flat flat = new Flat();
+        flat.getReserves().add(slotAt(dateTime, ReserveSlot.Status.CANCELED, "r1", "t1"));
+        flat.getReserves().add(slotAt(dateTime, ReserveSlot.Status.APPROVED, "r2", "t2"));
+        Mockito.when(flatRepositoryMock.findById(flatId)).thenReturn(Optional.of(flat));
+        ReserveSlot reserveSlot = new ReserveSlot();
+        reserveSlot.setDateTime(dateTime);
+        //when
+        IllegalTimeslotException exception = assertThrows(IllegalTimeslotException.class, () -> service.reserve(flatId, reserveSlot));
+        //expect
+        assertEquals("You cannot book this timeslot, it has already been occupied by another tenant", exception.getMessage());
+    }
+
+    @Test
+    public void test_joinWaitlist_When_TimeslotOccupied_Expect_QueuedWithoutSave(){
+        //given
+        String flatId = "f1";
+        LocalDateTime dateTime = LocalDate.now().plusDays(3).atTime(14, 20);
+        Flat flat = new Flat();
+        flat.getReserves().add(slotAt(dateTime, ReserveSlot.Status.PENDING, "r1", "t1"));
+        Mockito.when(flatRepositoryMock.findById(flatId)).thenReturn(Optional.of(flat));
+        ReserveSlot first = new ReserveSlot();
+        first.setDateTime(dateTime);
+        ReserveSlot second = new ReserveSlot();
+        second.setDateTime(dateTime);
+        //when
+        WaitlistResponse firstResponse = service.joinWaitlist(flatId, first);
+        WaitlistResponse secondResponse = service.joinWaitlist(flatId, second);
+        //expect
+        assertEquals(1, firstResponse.getPosition());
+        assertEquals(2, secondResponse.getPosition());
+        Mockito.verify(flatRepositoryMock, Mockito.never()).save(Mockito.any(Flat.class));
+    }
+
+    @Test
+    public void test_joinWaitlist_When_Queued_Expect_WaitlistEventPublished(){
+        //given
+        String flatId = "f1";
+        LocalDateTime dateTime = LocalDate.now().plusDays(3).atTime(14, 20);
+        Flat flat = new Flat();
+        flat.getReserves().add(slotAt(dateTime, ReserveSlot.Status.APPROVED, "r1", "t1"));
+        Mockito.when(flatRepositoryMock.findById(flatId)).thenReturn(Optional.of(flat));
+        FlatEventListener listenerMock = Mockito.mock(FlatEventListener.class);
+        service.addEventListener(listenerMock);
+        ReserveSlot waiting = new ReserveSlot();
+        waiting.setDateTime(dateTime);
+        //when
+        WaitlistResponse response = service.joinWaitlist(flatId, waiting);
+        service.leaveWaitlist(flatId, response.getId());
+        //expect
+        ArgumentCaptor<FlatEvent> eventCaptor = ArgumentCaptor.forClass(FlatEvent.class);
+        Mockito.verify(listenerMock, Mockito.times(2)).onEvent(eventCaptor.capture());
+        FlatEvent joined = eventCaptor.getAllValues().get(0);
+        assertEquals(FlatEvent.WaitlistChange.JOINED, joined.getWaitlist());
+        assertEquals(response.getId(), joined.getReservationId());
+        assertEquals("tenantUserId", joined.getTenantId());
+        assertEquals(dateTime, joined.getDateTime());
+        assertEquals(FlatEvent.WaitlistChange.LEFT, eventCaptor.getAllValues().get(1).getWaitlist());
+    }
+
+    @Test
+    public void test_joinWaitlist_When_TimeslotFree_Expect_ReservedImmediately(){
+        //given
+        String flatId = "f1";
+        Flat flat = new Flat();
+        flat.setLandlord(new Landlord("L1", null, null));
+        Mockito.when(flatRepositoryMock.findById(flatId)).thenReturn(Optional.of(flat));
+        ReserveSlot reserveSlot = new ReserveSlot();
+        reserveSlot.setDateTime(LocalDate.now().plusDays(3).atTime(14, 20));
+        //when
+        WaitlistResponse response = service.joinWaitlist(flatId, reserveSlot);
+        //expect
+        assertEquals(0, response.getPosition());
+        assertEquals(response.getId(), flat.getReserves().get(0).getId());
+        assertEquals(ReserveSlot.Status.PENDING, flat.getReserves().get(0).getStatus());
+    }
+
+    @Test
+    public void test_cancel_When_TenantWaiting_Expect_WaitingTenantPromotedAndNotified(){
+        //given
+        String flatId = "f1";
+        LocalDateTime dateTime = LocalDate.now().plusDays(3).atTime(14, 20);
+        Flat flat = new Flat();
+        flat.setLandlord(new Landlord("L1", null, null));
+        flat.getReserves().add(slotAt(dateTime, ReserveSlot.Status.APPROVED, "r1", "tenantUserId"));
+        Mockito.when(flatRepositoryMock.findById(flatId)).thenReturn(Optional.of(flat));
+        ReserveSlot waiting = new ReserveSlot();
+        waiting.setDateTime(dateTime);
+        WaitlistResponse waitlistResponse = service.joinWaitlist(flatId, waiting);
+        FlatEventListener listenerMock = Mockito.mock(FlatEventListener.class);
+        service.addEventListener(listenerMock);
+        //when
+        service.cancel(flatId, "r1");
+        //expect
+        Mockito.verify(flatRepositoryMock, Mockito.times(1)).save(flat);
+        assertEquals(2, flat.getReserves().size());
+        ReserveSlot promoted = flat.getReserves().get(1);
+        assertEquals(waitlistResponse.getId(), promoted.getId());
+        assertEquals(ReserveSlot.Status.PENDING, promoted.getStatus());
+        ArgumentCaptor<FlatEvent> eventCaptor = ArgumentCaptor.forClass(FlatEvent.class);
+        Mockito.verify(listenerMock, Mockito.times(3)).onEvent(eventCaptor.capture());
+        assertEquals(FlatEvent.WaitlistChange.LEFT, eventCaptor.getAllValues().get(1).getWaitlist());
+        assertEquals(waitlistResponse.getId(), eventCaptor.getAllValues().get(1).getReservationId());
+        assertEquals(ReserveSlot.Status.PENDING, eventCaptor.getAllValues().get(2).getStatus());
+        Mockito.verify(notificationServiceMock).send("tenantUserId", flatId, "A timeslot you were waiting for has been reserved for you, it is pending landlord approval");
+    }
+
+    @Test
+    public void test_cancel_When_WaitingTenantWithdrew_Expect_NobodyPromoted(){
+        //given
+        String flatId = "f1";
+        LocalDateTime dateTime = LocalDate.now().plusDays(3).atTime(14, 20);
+        Flat flat = new Flat();
+        flat.setLandlord(new Landlord("L1", null, null));
+        flat.getReserves().add(slotAt(dateTime, ReserveSlot.Status.APPROVED, "r1", "tenantUserId"));
+        Mockito.when(flatRepositoryMock.findById(flatId)).thenReturn(Optional.of(flat));
+        ReserveSlot waiting = new ReserveSlot();
+        waiting.setDateTime(dateTime);
+        WaitlistResponse waitlistResponse = service.joinWaitlist(flatId, waiting);
+        //when
+        ReservationResponse withdrawn = service.leaveWaitlist(flatId, waitlistResponse.getId());
+        service.cancel(flatId, "r1");
+        //expect
+        assertEquals(waitlistResponse.getId(), withdrawn.getId());
+        assertEquals(1, flat.getReserves().size());
+        assertThrows(ReservationNotFoundException.class, () -> service.leaveWaitlist(flatId, waitlistResponse.getId()));
+    }
+
+    @Test
+    public void test_leaveWaitlist_When_EntryBelongsToAnotherTenant_Expect_ReservationNotFoundException(){
+        //given
+        String flatId = "f1";
+        LocalDateTime dateTime = LocalDate.now().plusDays(3).atTime(14, 20);
+        Flat flat = new Flat();
+        flat.getReserves().add(slotAt(dateTime, ReserveSlot.Status.APPROVED, "r1", "t1"));
+        Mockito.when(flatRepositoryMock.findById(flatId)).thenReturn(Optional.of(flat));
+        ReserveSlot waiting = new ReserveSlot();
+        waiting.setDateTime(dateTime);
+        WaitlistResponse waitlistResponse = service.joinWaitlist(flatId, waiting);
+        TenantContext.set(Tenant.of("otherTenant"));
+        //expect
+        assertThrows(ReservationNotFoundException.class, () -> service.leaveWaitlist(flatId, waitlistResponse.getId()));
+    }
+
+    @Test
+    public void test_cancel_When_SlotInsideMinimumNotice_Expect_WaitlistDroppedInsteadOfPromoted(){
+        //given
+        String flatId = "f1";
+        LocalDateTime dateTime = LocalDateTime.now().plusHours(1).withSecond(0).withNano(0);
+        Flat flat = new Flat();
+        flat.setLandlord(new Landlord("L1", null, null));
+        flat.getReserves().add(slotAt(dateTime, ReserveSlot.Status.APPROVED, "r1", "tenantUserId"));
+        Mockito.when(flatRepositoryMock.findById(flatId)).thenReturn(Optional.of(flat));
+        WaitlistRegistryInMemoryProvider waitlistRegistry = new WaitlistRegistryInMemoryProvider();
+        waitlistRegistry.add(flatId, new WaitlistEntry("w1", "t2", dateTime));
+        service = new FlatServiceDefaultProvider(flatRepositoryMock, notificationServiceMock, null,
+                new BookingRulesRegistryInMemoryProvider(), waitlistRegistry);
+        //when
+        service.cancel(flatId, "r1");
+        //expect
+        assertEquals(1, flat.getReserves().size());
+        assertEquals(0, waitlistRegistry.getWaitingCount());
+        Mockito.verify(notificationServiceMock).send("t2", flatId, "The timeslot you were waiting for is no longer available");
+    }
+
+    @Test
+    public void test_reject_When_TenantWaiting_Expect_WaitlistDroppedAndNotified(){
+        //given
+        String flatId = "f1";
+        LocalDateTime dateTime = LocalDate.now().plusDays(3).atTime(14, 20);
+        Flat flat = new Flat();
+        flat.setLandlord(new Landlord("L1", null, null));
+        flat.getReserves().add(slotAt(dateTime, ReserveSlot.Status.PENDING, "r1", "t1"));
+        Mockito.when(flatRepositoryMock.findById(flatId)).thenReturn(Optional.of(flat));
+        ReserveSlot waiting = new ReserveSlot();
+        waiting.setDateTime(dateTime);
+        service.joinWaitlist(flatId, waiting);
+        //when
+        service.reject(flatId, "r1");
+        //expect
+        Mockito.verify(notificationServiceMock).send("tenantUserId", flatId, "The timeslot you were waiting for is no longer available");
+        ReserveSlot retry = new ReserveSlot();
+        retry.setDateTime(dateTime);
+        IllegalTimeslotException exception = assertThrows(IllegalTimeslotException.class, () -> service.joinWaitlist(flatId, retry));
+        assertEquals("You cannot book this timeslot, since it has reject been by the landlord", exception.getMessage());
+    }
+
+    @Test
+    public void test_decide_When_ManyDecisionsForOneFlat_Expect_SingleSaveAndBatchedNotifications(){
+        //given
+        String flatId = "f1";
+        LocalDateTime dateTime = LocalDate.now().plusDays(3).atTime(14, 20);
+        Flat flat = new Flat();
+        flat.getReserves().add(slotAt(dateTime, ReserveSlot.Status.PENDING, "r1", "t1"));
+        flat.getReserves().add(slotAt(dateTime.plusMinutes(20), ReserveSlot.Status.PENDING, "r2", "t2"));
+        flat.getReserves().add(slotAt(dateTime.plusMinutes(40), ReserveSlot.Status.CANCELED, "r3", "t3"));
+        Mockito.when(flatRepositoryMock.findById(flatId)).thenReturn(Optional.of(flat));
+        List<DecisionRequest> decisions = List.of(
+                new DecisionRequest(flatId, "r1", DecisionRequest.Decision.APPROVE),
+                new DecisionRequest(flatId, "r2", DecisionRequest.Decision.REJECT),
+                new DecisionRequest(flatId, "r3", DecisionRequest.Decision.APPROVE),
+                new DecisionRequest(flatId, "r4", DecisionRequest.Decision.APPROVE));
+        //when
+        List<DecisionResult> results = service.decide(decisions);
+        //expect
+        assertTrue(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+        assertEquals("You cannot approve this reservation, it has already been cancelled by tenant", results.get(2).getMessage());
+        assertEquals("r4 not found", results.get(3).getMessage());
+        assertEquals(ReserveSlot.Status.APPROVED, flat.getReserves().get(0).getStatus());
+        assertEquals(ReserveSlot.Status.REJECTED, flat.getReserves().get(1).getStatus());
+        Mockito.verify(flatRepositoryMock, Mockito.times(1)).findById(flatId);
+        Mockito.verify(flatRepositoryMock, Mockito.times(1)).save(flat);
+        Mockito.verify(notificationServiceMock, Mockito.times(1)).sendAll(Mockito.anyListOf(Notification.class));
+    }
+
+    @Test
+    public void test_decide_When_ItemHasNoFlatId_Expect_ItemFailsAndOthersNotified(){
+        //given
+        Flat flat = new Flat();
+        flat.getReserves().add(slotAt(LocalDate.now().plusDays(3).atTime(14, 20), ReserveSlot.Status.PENDING, "r1", "t1"));
+        Mockito.when(flatRepositoryMock.findById("f1")).thenReturn(Optional.of(flat));
+        //when
+        List<DecisionResult> results = service.decide(Arrays.asList(
+                new DecisionRequest("f1", "r1", DecisionRequest.Decision.APPROVE),
+                new DecisionRequest(null, "r2", DecisionRequest.Decision.APPROVE),
+                null));
+        //expect
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("flatId cannot be null", results.get(1).getMessage());
+        assertEquals("Decision cannot be null", results.get(2).getMessage());
+        ArgumentCaptor<List> sent = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(notificationServiceMock).sendAll(sent.capture());
+        assertEquals(1, sent.getValue().size());
+        assertEquals("t1", ((Notification) sent.getValue().get(0)).getUserId());
+    }
+
+    @Test
+    public void test_decide_When_FlatIdIsNotValid_Expect_OnlyThatFlatsItemsFail(){
+        //given
+        Flat flat = new Flat();
+        flat.getReserves().add(slotAt(LocalDate.now().plusDays(3).atTime(14, 20), ReserveSlot.Status.PENDING, "r1", "t1"));
+        Mockito.when(flatRepositoryMock.findById("f1")).thenReturn(Optional.of(flat));
+        Mockito.when(flatRepositoryMock.findById("missing")).thenReturn(Optional.empty());
+        //when
+        List<DecisionResult> results = service.decide(List.of(
+                new DecisionRequest("missing", "r1", DecisionRequest.Decision.APPROVE),
+                new DecisionRequest("f1", "r1", DecisionRequest.Decision.APPROVE)));
+        //expect
+        assertFalse(results.get(0).isSuccess());
+        assertEquals("missing not found", results.get(0).getMessage());
+        assertTrue(results.get(1).isSuccess());
+        assertEquals("f1", results.get(1).getFlatId());
+    }
+
+    @Test
+    public void test_tryReserve_When_TimeslotOccupied_Expect_RejectedOutcomeWithoutSave(){
+        //given
+        String flatId = "f1";
+        LocalDateTime dateTime = LocalDate.now().plusDays(3).atTime(14, 20);
+        Flat flat = new Flat();
+        flat.getReserves().add(slotAt(dateTime, ReserveSlot.Status.APPROVED, "r1", "t1"));
+        Mockito.when(flatRepositoryMock.findById(flatId)).thenReturn(Optional.of(flat));
+        ReserveSlot reserveSlot = new ReserveSlot();
+        reserveSlot.setDateTime(dateTime);
+        //when
+        ReservationOutcome outcome = service.tryReserve(flatId, reserveSlot);
+        //expect
+        assertTrue(outcome.isRejected());
+        assertEquals(ReservationOutcome.Rejection.ILLEGAL_TIMESLOT, outcome.getRejection());
+        assertEquals("You cannot book this timeslot, it has already been occupied by another tenant", outcome.getMessage());
+        Mockito.verify(flatRepositoryMock, Mockito.never()).save(Mockito.any(Flat.class));
+    }
+
+    @Test
+    public void test_tryReserve_When_FlatIdIsNotValid_Expect_FlatNotFoundOutcome(){
+        //given
+        ReserveSlot reserveSlot = new ReserveSlot();
+        reserveSlot.setDateTime(LocalDate.now().plusDays(3).atTime(14, 20));
+        Mockito.when(flatRepositoryMock.findById("missing")).thenReturn(Optional.empty());
+        //when
+        ReservationOutcome outcome = service.tryReserve("missing", reserveSlot);
+        //expect
+        assertEquals(ReservationOutcome.Rejection.FLAT_NOT_FOUND, outcome.getRejection());
+        assertEquals("missing not found", outcome.getMessage());
+    }
+
+    @Test
+    public void test_reserve_When_Rejected_Expect_ExceptionWithoutStackTrace(){
+        //given
+        ReserveSlot reserveSlot = new ReserveSlot();
+        reserveSlot.setDateTime(LocalDateTime.now().minusDays(30));
+        //when
+        IllegalTimeslotException exception = assertThrows(IllegalTimeslotException.class, () -> service.reserve(null, reserveSlot));
+        //expect
+        assertEquals(0, exception.getStackTrace().length);
+    }
+
+    private static ReserveSlot slotAt(LocalDateTime dateTime, ReserveSlot.Status status, String id, String tenantId) {
+        ReserveSlot slot = new ReserveSlot();
+        slot.setDateTime(dateTime);
+        slot.setStatus(status);
+        slot.setId(id);
+        slot.setTenantId(tenantId);
+        return slot;
+    }
+
+}
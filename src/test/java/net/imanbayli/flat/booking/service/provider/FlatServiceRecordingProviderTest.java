@@ -0,0 +1,93 @@
+package net.imanbayli.flat.booking.service.provider;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.imanbayli.flat.booking.jfr.FlatServiceEvent;
+import net.imanbayli.flat.booking.jfr.RecordingController;
+import net.imanbayli.flat.booking.model.ReservationResponse;
+import net.imanbayli.flat.booking.model.ReserveSlot;
+import net.imanbayli.flat.booking.service.FlatService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+public class FlatServiceRecordingProviderTest {
+    private FlatService delegateMock;
+    private FlatServiceRecordingProvider recordingProvider;
+    private Recording recording;
+    private Path dump;
+
+    @Before
+    public void setup() throws Exception {
+        delegateMock = Mockito.mock(FlatService.class);
+        recordingProvider = new FlatServiceRecordingProvider(delegateMock);
+        recording = new Recording();
+        recording.enable(FlatServiceEvent.class).withThreshold(Duration.ZERO);
+        recording.start();
+        dump = Files.createTempFile("flat-service-", ".jfr");
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        recording.close();
+        Files.deleteIfExists(dump);
+    }
+
+    @Test
+    public void test_reserve_When_DelegateSucceeds_Expect_SuccessEventRecorded() throws Exception {
+        //given
+        ReserveSlot slot = new ReserveSlot();
+        Mockito.when(delegateMock.reserve("ID_FLAT_1", slot)).thenReturn(new ReservationResponse());
+        //when
+        recordingProvider.reserve("ID_FLAT_1", slot);
+        //expect
+        List<RecordedEvent> events = recordedEvents();
+        assertEquals(1, events.size());
+        assertEquals("reserve", events.get(0).getString("operation"));
+        assertEquals("ID_FLAT_1", events.get(0).getString("flatId"));
+        assertEquals(1, events.get(0).getInt("reservationCount"));
+        assertEquals("SUCCESS", events.get(0).getString("outcome"));
+    }
+
+    @Test
+    public void test_cancel_When_DelegateThrows_Expect_FailureEventRecordedAndRethrown() throws Exception {
+        //given
+        Mockito.when(delegateMock.cancel("ID_FLAT_1", "R1")).thenThrow(new IllegalArgumentException("no reservation"));
+        //when
+        try {
+            recordingProvider.cancel("ID_FLAT_1", "R1");
+            fail();
+        } catch (IllegalArgumentException e) {
+            //expect
+            List<RecordedEvent> events = recordedEvents();
+            assertEquals(1, events.size());
+            assertEquals("cancel", events.get(0).getString("operation"));
+            assertEquals("IllegalArgumentException", events.get(0).getString("outcome"));
+        }
+    }
+
+    @Test
+    public void test_profile_When_Loaded_Expect_BookingEventsEnabled() throws Exception {
+        //expect
+        assertNotNull(RecordingController.profile().getSettings().get("net.imanbayli.flat.booking.FlatService#enabled"));
+    }
+
+    private List<RecordedEvent> recordedEvents() throws Exception {
+        recording.dump(dump);
+        return RecordingFile.readAllEvents(dump).stream()
+                .filter(e -> e.getEventType().getName().equals("net.imanbayli.flat.booking.FlatService"))
+                .collect(Collectors.toList());
+    }
+}
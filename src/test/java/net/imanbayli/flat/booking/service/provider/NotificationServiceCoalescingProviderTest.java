@@ -0,0 +1,168 @@
+package net.imanbayli.flat.booking.service.provider;
+
+import net.imanbayli.flat.booking.model.Notification;
+import net.imanbayli.flat.booking.service.NotificationService;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NotificationServiceCoalescingProviderTest {
+    private static final String PENDING = "the reservation for your flat is pending, please approve or reject it";
+    private static final String CANCELLED = "Your reservation has been cancelled";
+
+    private DeliveringStub delegate;
+    private NotificationServiceCoalescingProvider coalescer;
+
+    @Before
+    public void setup() {
+        delegate = new DeliveringStub();
+        coalescer = new NotificationServiceCoalescingProvider(delegate, Duration.ofMillis(100), Duration.ofSeconds(5), 2);
+    }
+
+    @Test
+    public void test_send_When_SingleMessageInWindow_Expect_OriginalMessageDelivered() throws InterruptedException {
+        //when
+        coalescer.send("L1", PENDING);
+        //expect
+        assertEquals(List.of(PENDING), delegate.await("L1", 1));
+        assertEquals(1, coalescer.getReceivedCount());
+    }
+
+    @Test
+    public void test_send_When_ManyMessagesForSameRecipient_Expect_OneDigest() throws InterruptedException {
+        //when
+        for (int i = 0; i < 5; i++) {
+            coalescer.send("L1", PENDING);
+        }
+        coalescer.send("L1", CANCELLED);
+        coalescer.send("L2", CANCELLED);
+        //expect
+        assertEquals(List.of("You have 6 new notifications: 5 x " + PENDING + "; 1 x " + CANCELLED), delegate.await("L1", 1));
+        assertEquals(List.of(CANCELLED), delegate.await("L2", 1));
+        assertEquals(7, coalescer.getReceivedCount());
+        assertEquals(2, coalescer.getDeliveredCount());
+    }
+
+    @Test
+    public void test_send_When_MoreDistinctMessagesThanLimit_Expect_OverflowCounted() {
+        //when
+        coalescer.send("L1", PENDING);
+        coalescer.send("L1", CANCELLED);
+        coalescer.send("L1", "Your reservation has been approved");
+        coalescer.flush();
+        //expect
+        assertEquals(List.of("You have 3 new notifications: 1 x " + PENDING + "; 1 x " + CANCELLED + "; 1 x other notifications"),
+                delegate.delivered("L1"));
+    }
+
+    @Test
+    public void test_sendAll_When_SeveralRecipientsDueTogether_Expect_OneBatchDelivered() {
+        //when
+        coalescer.sendAll(List.of(new Notification("T1", CANCELLED), new Notification("T2", CANCELLED),
+                new Notification("T1", PENDING)));
+        coalescer.flush();
+        //expect
+        assertEquals(1, delegate.batches.get());
+        assertEquals(List.of("You have 2 new notifications: 1 x " + CANCELLED + "; 1 x " + PENDING), delegate.delivered("T1"));
+        assertEquals(List.of(CANCELLED), delegate.delivered("T2"));
+        assertEquals(3, coalescer.getReceivedCount());
+        assertEquals(2, coalescer.getDeliveredCount());
+    }
+
+    @Test
+    public void test_send_When_MessagesAboutSeveralFlats_Expect_DistinctFlatsCounted() {
+        //when
+        coalescer.send("L1", "f1", PENDING);
+        coalescer.send("L1", "f2", PENDING);
+        coalescer.send("L1", "f1", PENDING);
+        coalescer.send("L2", "f1", PENDING);
+        coalescer.send("L2", "f1", CANCELLED);
+        coalescer.flush();
+        //expect
+        assertEquals(List.of("You have 3 new notifications across 2 flats: 3 x " + PENDING), delegate.delivered("L1"));
+        assertEquals(List.of("You have 2 new notifications for 1 flat: 1 x " + PENDING + "; 1 x " + CANCELLED),
+                delegate.delivered("L2"));
+    }
+
+    @Test
+    public void test_flush_When_DelegateFails_Expect_FailureCounted() {
+        //given
+        coalescer = new NotificationServiceCoalescingProvider((userId, message) -> {
+            throw new IllegalStateException("downstream is down");
+        }, Duration.ofMillis(100), Duration.ofSeconds(5), 2);
+        coalescer.send("L1", PENDING);
+        //when
+        coalescer.flush();
+        //expect
+        assertEquals(0, coalescer.getDeliveredCount());
+        assertEquals(1, coalescer.getFailedCount());
+    }
+
+    @Test
+    public void test_send_When_ManyRecipientsDueAtDifferentTimes_Expect_EachDeliveredOnce() throws InterruptedException {
+        //when
+        for (int i = 0; i < 200; i++) {
+            coalescer.send("T" + i, CANCELLED);
+            if (i % 50 == 0) {
+                Thread.sleep(30);
+            }
+        }
+        //expect
+        for (int i = 0; i < 200; i++) {
+            assertEquals(List.of(CANCELLED), delegate.await("T" + i, 1));
+        }
+        assertEquals(200, coalescer.getDeliveredCount());
+    }
+
+    @Test
+    public void test_send_When_MessagesKeepArriving_Expect_DeliveredWithinMaxDelay() throws InterruptedException {
+        //given
+        coalescer = new NotificationServiceCoalescingProvider(delegate, Duration.ofMillis(100), Duration.ofMillis(300), 2);
+        //when
+        long deadline = System.currentTimeMillis() + 800;
+        while (System.currentTimeMillis() < deadline) {
+            coalescer.send("L1", PENDING);
+            Thread.sleep(20);
+        }
+        //expect
+        assertTrue(delegate.delivered("L1").size() >= 2);
+    }
+
+    private static class DeliveringStub implements NotificationService {
+        private final Map<String, Queue<String>> messages = new ConcurrentHashMap<>();
+        private final AtomicInteger batches = new AtomicInteger();
+
+        @Override
+        public void send(String userId, String message) {
+            messages.computeIfAbsent(userId, id -> new ConcurrentLinkedQueue<>()).add(message);
+        }
+
+        @Override
+        public void sendAll(List<Notification> notifications) {
+            batches.incrementAndGet();
+            NotificationService.super.sendAll(notifications);
+        }
+
+        List<String> delivered(String userId) {
+            return List.copyOf(messages.getOrDefault(userId, new ConcurrentLinkedQueue<>()));
+        }
+
+        List<String> await(String userId, int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 2000;
+            while (delivered(userId).size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            return delivered(userId);
+        }
+    }
+}
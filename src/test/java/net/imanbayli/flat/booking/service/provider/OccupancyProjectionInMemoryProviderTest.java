@@ -0,0 +1,101 @@
+package net.imanbayli.flat.booking.service.provider;
+
+import net.imanbayli.flat.booking.model.Flat;
+import net.imanbayli.flat.booking.model.FlatEvent;
+import net.imanbayli.flat.booking.model.FlatOccupancy;
+import net.imanbayli.flat.booking.model.ReserveSlot;
+import net.imanbayli.flat.booking.repository.FlatRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OccupancyProjectionInMemoryProviderTest {
+    private OccupancyProjectionInMemoryProvider projection;
+    private FlatRepository flatRepositoryMock;
+
+    @Before
+    public void setup() {
+        flatRepositoryMock = Mockito.mock(FlatRepository.class);
+        Mockito.when(flatRepositoryMock.findById(Mockito.anyString())).thenReturn(Optional.empty());
+        projection = new OccupancyProjectionInMemoryProvider(flatRepositoryMock);
+    }
+
+    @Test
+    public void test_find_When_NoEventsForFlat_Expect_Empty() {
+        //when
+        Optional<FlatOccupancy> occupancy = projection.find("f1");
+        //expect
+        assertFalse(occupancy.isPresent());
+    }
+
+    @Test
+    public void test_onEvent_When_SlotsReservedOutOfOrder_Expect_SortedOccupiedDatesAndJson() throws InterruptedException {
+        //given
+        projection.onEvent(event("r1", LocalDateTime.of(2021, 1, 2, 10, 0), ReserveSlot.Status.PENDING));
+        projection.onEvent(event("r2", LocalDateTime.of(2021, 1, 1, 16, 20), ReserveSlot.Status.APPROVED));
+        //when
+        FlatOccupancy occupancy = awaitProjection();
+        //expect
+        assertEquals(List.of("2021-01-01T16:20:00", "2021-01-02T10:00:00"), occupancy.getOccupiedDates());
+        assertEquals("[\"2021-01-01T16:20:00\",\"2021-01-02T10:00:00\"]", new String(occupancy.getJson(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void test_onEvent_When_ReservationCancelled_Expect_SlotReleased() throws InterruptedException {
+        //given
+        projection.onEvent(event("r1", LocalDateTime.of(2021, 1, 1, 16, 20), ReserveSlot.Status.PENDING));
+        projection.onEvent(event("r1", LocalDateTime.of(2021, 1, 1, 16, 20), ReserveSlot.Status.CANCELED));
+        //when
+        FlatOccupancy occupancy = awaitProjection();
+        //expect
+        assertTrue(occupancy.getOccupiedDates().isEmpty());
+        assertEquals("[]", new String(occupancy.getJson(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void test_onEvent_When_RepositoryHoldsEarlierReservations_Expect_ProjectionSeededFromRepository() throws InterruptedException {
+        //given
+        Flat flat = new Flat("f1", "Cozy apartment", "London");
+        flat.getReserves().add(slot("r0", LocalDateTime.of(2021, 1, 1, 14, 20), ReserveSlot.Status.APPROVED));
+        flat.getReserves().add(slot("r1", LocalDateTime.of(2021, 1, 1, 14, 40), ReserveSlot.Status.PENDING));
+        Mockito.when(flatRepositoryMock.findById("f1")).thenReturn(Optional.of(flat));
+        //when
+        projection.onEvent(event("r1", LocalDateTime.of(2021, 1, 1, 14, 40), ReserveSlot.Status.PENDING));
+        FlatOccupancy occupancy = awaitProjection();
+        //expect
+        assertEquals(List.of("2021-01-01T14:20:00", "2021-01-01T14:40:00"), occupancy.getOccupiedDates());
+        assertTrue(occupancy.getUnavailableSlots().contains(LocalDateTime.of(2021, 1, 1, 14, 20)));
+        Mockito.verify(flatRepositoryMock, Mockito.times(1)).findById("f1");
+    }
+
+    private FlatOccupancy awaitProjection() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (projection.getPendingEvents() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, projection.getLagMillis());
+        return projection.find("f1").orElseThrow();
+    }
+
+    private FlatEvent event(String reservationId, LocalDateTime dateTime, ReserveSlot.Status status) {
+        return FlatEvent.of("f1", slot(reservationId, dateTime, status));
+    }
+
+    private ReserveSlot slot(String reservationId, LocalDateTime dateTime, ReserveSlot.Status status) {
+        ReserveSlot slot = new ReserveSlot();
+        slot.setId(reservationId);
+        slot.setDateTime(dateTime);
+        slot.setStatus(status);
+        slot.setTenantId("t1");
+        return slot;
+    }
+}
@@ -0,0 +1,111 @@
+package net.imanbayli.flat.booking.service.provider;
+
+import net.imanbayli.flat.booking.model.Tenant;
+import net.imanbayli.flat.booking.service.TokenVerifier;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TokenVerifierCachingProviderTest {
+    private TokenVerifier delegateMock;
+    private MutableClock clock;
+    private TokenVerifierCachingProvider verifier;
+
+    @Before
+    public void setup() {
+        delegateMock = Mockito.spy(new TokenVerifierStubProvider());
+        clock = new MutableClock();
+        verifier = new TokenVerifierCachingProvider(delegateMock, Duration.ofSeconds(60), 2, clock);
+    }
+
+    @Test
+    public void test_verify_When_TokenSeenRecently_Expect_DelegateCalledOnce() {
+        //when
+        Optional<Tenant> first = verifier.verify("tenant:t1");
+        Optional<Tenant> second = verifier.verify("tenant:t1");
+        //expect
+        assertEquals("t1", first.get().getId());
+        assertEquals("t1", second.get().getId());
+        Mockito.verify(delegateMock, Mockito.times(1)).verify("tenant:t1");
+        assertEquals(0.5, verifier.getHitRatio(), 0.0001);
+    }
+
+    @Test
+    public void test_verify_When_TtlElapsed_Expect_TokenVerifiedAgain() {
+        //given
+        verifier.verify("tenant:t1");
+        clock.millis = 60_000L;
+        //when
+        verifier.verify("tenant:t1");
+        //expect
+        Mockito.verify(delegateMock, Mockito.times(2)).verify("tenant:t1");
+        assertEquals(0, verifier.getHitCount());
+    }
+
+    @Test
+    public void test_verify_When_TokensRejected_Expect_NotCachedAndValidTokensKept() {
+        //given
+        verifier.verify("tenant:t1");
+        //when
+        for (int i = 0; i < 10; i++) {
+            assertFalse(verifier.verify("forged" + i).isPresent());
+        }
+        Optional<Tenant> tenant = verifier.verify("tenant:t1");
+        //expect
+        assertEquals("t1", tenant.get().getId());
+        assertEquals(1, verifier.size());
+        assertEquals(1, verifier.getHitCount());
+        Mockito.verify(delegateMock, Mockito.times(1)).verify("tenant:t1");
+    }
+
+    @Test
+    public void test_verify_When_TenantIdLongerThanRepositoryLimit_Expect_Rejected() {
+        //when
+        Optional<Tenant> tooLong = verifier.verify("tenant:" + "x".repeat(Tenant.MAX_ID_BYTES + 1));
+        Optional<Tenant> longest = verifier.verify("tenant:" + "x".repeat(Tenant.MAX_ID_BYTES));
+        //expect
+        assertFalse(tooLong.isPresent());
+        assertTrue(longest.isPresent());
+    }
+
+    @Test
+    public void test_verify_When_CacheFull_Expect_SizeBounded() {
+        //when
+        for (int i = 0; i < 10; i++) {
+            verifier.verify("tenant:t" + i);
+        }
+        //expect
+        assertTrue(verifier.size() <= 2);
+        assertEquals("t9", verifier.verify("tenant:t9").get().getId());
+    }
+
+    private static class MutableClock extends Clock {
+        private long millis;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
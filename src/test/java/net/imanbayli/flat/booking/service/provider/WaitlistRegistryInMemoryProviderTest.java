@@ -0,0 +1,64 @@
+package net.imanbayli.flat.booking.service.provider;
+
+import net.imanbayli.flat.booking.exception.IllegalTimeslotException;
+import net.imanbayli.flat.booking.model.WaitlistEntry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+
+public class WaitlistRegistryInMemoryProviderTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2021, 1, 4, 9, 0);
+    private static final LocalDateTime SLOT = NOW.plusDays(2).withHour(14).withMinute(20);
+
+    private WaitlistRegistryInMemoryProvider registry;
+
+    @Before
+    public void setup() {
+        Clock clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        registry = new WaitlistRegistryInMemoryProvider(2, clock);
+    }
+
+    @Test
+    public void test_poll_When_SeveralTenantsWaiting_Expect_FirstInFirstOut() {
+        //given
+        registry.add("f1", new WaitlistEntry("w1", "t1", SLOT));
+        registry.add("f1", new WaitlistEntry("w2", "t2", SLOT));
+        //expect
+        assertEquals("w1", registry.poll("f1", SLOT).get().getId());
+        assertEquals("w2", registry.poll("f1", SLOT).get().getId());
+        assertFalse(registry.poll("f1", SLOT).isPresent());
+        assertEquals(0, registry.getWaitingCount());
+    }
+
+    @Test
+    public void test_add_When_SlotWaitlistFull_Expect_IllegalTimeslotException() {
+        //given
+        registry.add("f1", new WaitlistEntry("w1", "t1", SLOT));
+        registry.add("f1", new WaitlistEntry("w2", "t2", SLOT));
+        //when
+        IllegalTimeslotException exception = assertThrows(IllegalTimeslotException.class,
+                () -> registry.add("f1", new WaitlistEntry("w3", "t3", SLOT)));
+        //expect
+        assertEquals("The waitlist for this timeslot is full", exception.getMessage());
+        assertEquals(1, registry.add("f1", new WaitlistEntry("w4", "t4", SLOT.plusMinutes(20))));
+    }
+
+    @Test
+    public void test_add_When_OtherSlotsHavePassed_Expect_PastWaitlistsDropped() {
+        //given
+        registry.add("f1", new WaitlistEntry("w1", "t1", NOW.minusHours(1)));
+        //when
+        registry.add("f1", new WaitlistEntry("w2", "t2", SLOT));
+        //expect
+        assertEquals(1, registry.getWaitingCount());
+        assertEquals(0, registry.clear("f1", NOW.minusHours(1)).size());
+    }
+}